@@ -0,0 +1,154 @@
+package de.knallisworld.aoc2023.day04;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Evaluates scratchcards in one streaming pass over the raw bytes.
+ * <p>
+ * The numbers of a card (all below 128) are collected as two 128-bit masks (two longs each), the win count is the
+ * popcount of their intersection. Nothing but the win counts is kept.
+ */
+class ScratchcardEngine {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private static final int HEADER = 0;
+	private static final int WINNING = 1;
+	private static final int HAVE = 2;
+
+	private int state = HEADER;
+	private int number = -1;
+	private long winningLow;
+	private long winningHigh;
+	private long haveLow;
+	private long haveHigh;
+
+	private int[] counts = new int[256];
+	private int size;
+
+	static int[] winCounts(final InputStream in) {
+		final var engine = new ScratchcardEngine();
+		final var buffer = new byte[BUFFER_SIZE];
+		try {
+			int read;
+			while ((read = in.read(buffer)) >= 0) {
+				engine.accept(buffer, read);
+			}
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return engine.finish();
+	}
+
+	static int[] winCounts(final byte[] data) {
+		final var engine = new ScratchcardEngine();
+		engine.accept(data, data.length);
+		return engine.finish();
+	}
+
+	private void accept(final byte[] buffer, final int length) {
+		for (var i = 0; i < length; i++) {
+			final var b = buffer[i];
+			if (state == HEADER) {
+				if (b == ':') {
+					state = WINNING;
+				}
+				continue;
+			}
+			if (b >= '0' && b <= '9') {
+				number = (number < 0 ? 0 : number * 10) + (b - '0');
+				continue;
+			}
+			flushNumber();
+			if (b == '|') {
+				state = HAVE;
+			} else if (b == '\n') {
+				endCard();
+			}
+		}
+	}
+
+	private void flushNumber() {
+		if (number < 0) {
+			return;
+		}
+		if (number >= 128) {
+			throw new IllegalArgumentException("number out of range: " + number);
+		}
+		if (state == WINNING) {
+			if (number < 64) {
+				winningLow |= 1L << number;
+			} else {
+				winningHigh |= 1L << number;
+			}
+		} else {
+			if (number < 64) {
+				haveLow |= 1L << number;
+			} else {
+				haveHigh |= 1L << number;
+			}
+		}
+		number = -1;
+	}
+
+	private void endCard() {
+		if (state == HEADER) {
+			// empty line
+			return;
+		}
+		if (size == counts.length) {
+			counts = Arrays.copyOf(counts, size * 2);
+		}
+		counts[size++] = Long.bitCount(winningLow & haveLow) + Long.bitCount(winningHigh & haveHigh);
+		state = HEADER;
+		winningLow = 0;
+		winningHigh = 0;
+		haveLow = 0;
+		haveHigh = 0;
+	}
+
+	private int[] finish() {
+		flushNumber();
+		// no trailing line break
+		endCard();
+		return Arrays.copyOf(counts, size);
+	}
+
+	/**
+	 * Points: 2^(wins - 1) per card with wins
+	 */
+	static long points(final int[] winCounts) {
+		var sum = 0L;
+		for (final var wins : winCounts) {
+			if (wins > 0) {
+				sum += 1L << (wins - 1);
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * Total number of cards, original ones and won copies. A card with w wins adds its number of copies to the next
+	 * w cards: a range update, recorded in a difference array and resolved in the same pass.
+	 */
+	static long totalCards(final int[] winCounts) {
+		final var n = winCounts.length;
+		final var diff = new long[n + 1];
+		var extra = 0L;
+		var total = 0L;
+		for (var i = 0; i < n; i++) {
+			extra += diff[i];
+			final var copies = 1 + extra;
+			total += copies;
+			if (winCounts[i] > 0 && i + 1 < n) {
+				diff[i + 1] += copies;
+				diff[Math.min(n, i + 1 + winCounts[i])] -= copies;
+			}
+		}
+		return total;
+	}
+
+}
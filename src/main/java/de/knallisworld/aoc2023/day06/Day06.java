@@ -1,11 +1,11 @@
 package de.knallisworld.aoc2023.day06;
 
+import de.knallisworld.aoc2023.support.math.Quadratics;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.util.Assert;
 
 import java.util.List;
 import java.util.stream.IntStream;
-import java.util.stream.LongStream;
 
 import static de.knallisworld.aoc2023.support.cli.Commons.printHeader;
 import static de.knallisworld.aoc2023.support.cli.Commons.printSolution;
@@ -27,9 +27,6 @@ public class Day06 {
 	record Race(long duration, long distance) {
 	}
 
-	record Lap(long speed, long distance) {
-	}
-
 	static Input parseInput(final List<String> lines) {
 		Assert.state(lines.size() == 2, "invalid line length");
 		Assert.state(lines.get(0).startsWith("Time:"), "invalid line 1");
@@ -77,20 +74,17 @@ public class Day06 {
 		final var result = input
 				.races()
 				.stream()
-				.map(race -> {
-					return LongStream.range(0, race.duration)
-									 .boxed()
-									 .map(speed -> new Lap(
-											speed,
-											(race.duration - speed) * speed
-									))
-									 .filter(lap -> lap.distance > race.distance)
-									 .count();
-				})
-				.mapToInt(Long::intValue)
-				.reduce(1, (a, b) -> a * b);
+				.mapToLong(Day06::countWinningHolds)
+				.reduce(1, Math::multiplyExact);
 		return "result = %d".formatted(result);
 	}
 
+	/**
+	 * Holding the button t ms lets the boat travel t * (duration - t) mm; counts the t beating the record.
+	 */
+	static long countWinningHolds(final Race race) {
+		return Quadratics.countProductAbove(race.duration(), race.distance());
+	}
+
 }
 
@@ -0,0 +1,106 @@
+package de.knallisworld.aoc2023.day07;
+
+import de.knallisworld.aoc2023.support.lang.RadixSort;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Ranks hands by a packed key, computed once per hand.
+ * <p>
+ * Key layout: the hand type (1 = high card .. 7 = five of a kind) in bits 20-22, below five 4-bit card ranks (first
+ * card highest). Comparing keys is comparing hands. For sorting, the key goes into the upper half of a long and the
+ * hand's index into the lower half, so a radix sort over the key bits yields the ranking directly.
+ */
+class HandRanking {
+
+	static final int CARDS = 5;
+	static final int TYPE_SHIFT = CARDS * 4;
+	static final int KEY_BITS = TYPE_SHIFT + 3;
+
+	static final int JOKER_RANK = 1;
+
+	static int rank(final char c, final boolean jokers) {
+		return switch (c) {
+			case 'T' -> 10;
+			case 'J' -> jokers ? JOKER_RANK : 11;
+			case 'Q' -> 12;
+			case 'K' -> 13;
+			case 'A' -> 14;
+			default -> {
+				if (c < '2' || c > '9') {
+					throw new IllegalArgumentException("invalid card: " + c);
+				}
+				yield c - '0';
+			}
+		};
+	}
+
+	/**
+	 * @param jokers whether J is a joker (weakest card, but counts as the most frequent other card)
+	 */
+	static int key(final List<Day07.Card> cards, final boolean jokers) {
+		if (cards.size() != CARDS) {
+			throw new IllegalArgumentException("invalid hand size");
+		}
+		final var counts = new int[15];
+		var key = 0;
+		for (final var card : cards) {
+			final var rank = rank(card.c(), jokers);
+			counts[rank]++;
+			key = key << 4 | rank;
+		}
+
+		var first = 0;
+		var second = 0;
+		for (var rank = 2; rank < counts.length; rank++) {
+			final var count = counts[rank];
+			if (count > first) {
+				second = first;
+				first = count;
+			} else if (count > second) {
+				second = count;
+			}
+		}
+		// jokers always join the largest group
+		first += counts[JOKER_RANK];
+
+		return type(first, second) << TYPE_SHIFT | key;
+	}
+
+	private static int type(final int first, final int second) {
+		return switch (first) {
+			case 5 -> 7;
+			case 4 -> 6;
+			case 3 -> second == 2 ? 5 : 4;
+			case 2 -> second == 2 ? 3 : 2;
+			default -> 1;
+		};
+	}
+
+	/**
+	 * @return the hands' indices, weakest first
+	 */
+	static int[] rank(final List<Day07.Hand> hands, final boolean jokers) {
+		final var packed = new long[hands.size()];
+		IntStream.range(0, packed.length)
+				 .parallel()
+				 .forEach(i -> packed[i] = (long) key(hands.get(i).cards(), jokers) << Integer.SIZE | i);
+		RadixSort.sort(packed, Integer.SIZE, Integer.SIZE + KEY_BITS);
+		final var result = new int[packed.length];
+		for (var i = 0; i < packed.length; i++) {
+			result[i] = (int) packed[i];
+		}
+		return result;
+	}
+
+	static long winnings(final List<Day07.Hand> hands, final boolean jokers) {
+		final var ranking = rank(hands, jokers);
+		var winnings = 0L;
+		for (var i = 0; i < ranking.length; i++) {
+			winnings += hands.get(ranking[i]).bid() * (i + 1);
+		}
+		return winnings;
+	}
+
+}
@@ -1,10 +1,11 @@
 package de.knallisworld.aoc2023.day08;
 
-import de.knallisworld.aoc2023.support.math.Utils;
+import de.knallisworld.aoc2023.support.math.NumberTheory.Cycle;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.util.Assert;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -14,6 +15,7 @@ import java.util.stream.IntStream;
 
 import static de.knallisworld.aoc2023.support.cli.Commons.printHeader;
 import static de.knallisworld.aoc2023.support.cli.Commons.printSolution;
+import static de.knallisworld.aoc2023.support.math.NumberTheory.combineCycles;
 import static de.knallisworld.aoc2023.support.puzzle.InputReader.readInputLines;
 import static java.util.stream.Collectors.toMap;
 
@@ -115,25 +117,41 @@ public class Day08 {
 									  .filter(startSelector)
 									  .toList();
 
-		return starts
+		final var walker = NetworkWalker.of(input, endingSelector);
+		if (starts.size() == 1) {
+			return walker.next(walker.id(starts.getFirst()), 0).steps();
+		}
+
+		// each start ends up in a cycle: first end, then periodically (not necessarily starting at zero)
+		final var cycles = starts
 				.stream()
-				.mapToLong(start -> {
-					long used = 0L;
-					var node = start;
-					while (!endingSelector.test(node)) {
-						final var dir = input.instructions.get((int) (used % input.instructions.size()));
-						used++;
-						final var next = input.nodes.get(node);
-						node = switch (dir) {
-							case L -> next.left;
-							case R -> next.right;
-						};
-					}
-					return used;
-				})
-				// lcm is the king
-				// first missed the important info the searches per node will *stop* when reached the destination
-				.reduce(1, Utils::lcm);
+				.map(start -> endCycle(walker, start, input.instructions.size()))
+				.toList();
+		return combineCycles(cycles).offset();
+	}
+
+	/**
+	 * Follows the ends until a walk state (node, position in the instructions) repeats; from then on, the ends repeat
+	 * exactly. They form a cycle only if all gaps between them are equal.
+	 *
+	 * @throws IllegalStateException if the ends are not periodic
+	 */
+	static Cycle endCycle(final NetworkWalker walker, final String start, final int length) {
+		final var seen = new HashSet<Long>();
+		final var hits = new ArrayList<Long>();
+		var hit = walker.next(walker.id(start), 0);
+		while (seen.add((long) hit.node() * length + hit.steps() % length)) {
+			hits.add(hit.steps());
+			hit = walker.next(hit.node(), hit.steps());
+		}
+		hits.add(hit.steps());
+		final var period = hits.get(1) - hits.get(0);
+		for (var i = 2; i < hits.size(); i++) {
+			if (hits.get(i) - hits.get(i - 1) != period) {
+				throw new IllegalStateException("ends of %s are not periodic: %s".formatted(start, hits));
+			}
+		}
+		return new Cycle(hits.getFirst(), period);
 	}
 
 	static Supplier<Dir> buildDirProvider(final List<Dir> dirs) {
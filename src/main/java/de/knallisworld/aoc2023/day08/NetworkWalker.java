@@ -0,0 +1,153 @@
+package de.knallisworld.aoc2023.day08;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Walks the network with interned node ids and binary lifting over whole instruction passes.
+ * <p>
+ * Precomputed per node: the node after one full pass, and the first step within that pass reaching an ending node.
+ * On top, jump[k][node] is the node after 2^k passes and hit[k][node] tells whether an ending is reached within
+ * them. Finding the next ending is then at most one partial pass plus O(log n) jumps, regardless of the distance.
+ */
+class NetworkWalker {
+
+	/**
+	 * Reached ending node after the given number of steps (counted from the very beginning)
+	 */
+	record Hit(int node, long steps) {
+	}
+
+	private final Map<String, Integer> ids;
+	private final String[] names;
+	private final int[] left;
+	private final int[] right;
+	private final boolean[] rightTurn;
+	private final boolean[] ending;
+
+	// first step (1-based) within a pass from the node reaching an ending, 0 if none
+	private final int[] firstHit;
+	private final int[][] jump;
+	private final boolean[][] hit;
+
+	private NetworkWalker(final Day08.Input input, final Predicate<String> endingSelector) {
+		names = input.nodes().keySet().toArray(String[]::new);
+		ids = new HashMap<>();
+		for (var i = 0; i < names.length; i++) {
+			ids.put(names[i], i);
+		}
+		final var n = names.length;
+		left = new int[n];
+		right = new int[n];
+		ending = new boolean[n];
+		for (var i = 0; i < n; i++) {
+			final var node = input.nodes().get(names[i]);
+			left[i] = id(node.left());
+			right[i] = id(node.right());
+			ending[i] = endingSelector.test(names[i]);
+		}
+		rightTurn = new boolean[input.instructions().size()];
+		for (var i = 0; i < rightTurn.length; i++) {
+			rightTurn[i] = input.instructions().get(i) == Day08.Dir.R;
+		}
+
+		// one pass per node: O(n * instructions), independent per node
+		firstHit = new int[n];
+		final var pass = new int[n];
+		IntStream.range(0, n).parallel().forEach(start -> {
+			var node = start;
+			for (var s = 0; s < rightTurn.length; s++) {
+				node = rightTurn[s] ? right[node] : left[node];
+				if (firstHit[start] == 0 && ending[node]) {
+					firstHit[start] = s + 1;
+				}
+			}
+			pass[start] = node;
+		});
+
+		// a walk without an ending within n passes is in a cycle without any
+		final var levels = Math.max(1, 64 - Long.numberOfLeadingZeros(n));
+		jump = new int[levels][];
+		hit = new boolean[levels][];
+		jump[0] = pass;
+		hit[0] = new boolean[n];
+		for (var i = 0; i < n; i++) {
+			hit[0][i] = firstHit[i] > 0;
+		}
+		for (var k = 1; k < levels; k++) {
+			final var prevJump = jump[k - 1];
+			final var prevHit = hit[k - 1];
+			jump[k] = new int[n];
+			hit[k] = new boolean[n];
+			for (var i = 0; i < n; i++) {
+				final var mid = prevJump[i];
+				jump[k][i] = prevJump[mid];
+				hit[k][i] = prevHit[i] || prevHit[mid];
+			}
+		}
+	}
+
+	/**
+	 * @param endingSelector which nodes are endings
+	 */
+	static NetworkWalker of(final Day08.Input input, final Predicate<String> endingSelector) {
+		return new NetworkWalker(input, endingSelector);
+	}
+
+	int id(final String name) {
+		return requireNonNull(ids.get(name), "invalid node: " + name);
+	}
+
+	String name(final int id) {
+		return names[id];
+	}
+
+	/**
+	 * The next ending reached from the node (at least one step).
+	 *
+	 * @param steps steps taken so far, determines the position within the instructions
+	 * @throws IllegalStateException if no ending is reachable anymore
+	 */
+	Hit next(final int node, final long steps) {
+		final var length = rightTurn.length;
+		var current = node;
+		var used = steps;
+
+		// finish the current pass step by step
+		final var phase = (int) (steps % length);
+		for (var s = phase; phase > 0 && s < length; s++) {
+			current = rightTurn[s] ? right[current] : left[current];
+			used++;
+			if (ending[current]) {
+				return new Hit(current, used);
+			}
+		}
+
+		// skip whole passes without an ending
+		if (!hit[0][current]) {
+			for (var k = jump.length - 1; k >= 0; k--) {
+				if (!hit[k][current]) {
+					current = jump[k][current];
+					used = Math.addExact(used, Math.multiplyExact(1L << k, length));
+				}
+			}
+			if (!hit[0][current]) {
+				throw new IllegalStateException("no ending reachable from " + names[node]);
+			}
+		}
+		return new Hit(walk(current, firstHit[current]), used + firstHit[current]);
+	}
+
+	private int walk(final int node, final int steps) {
+		var current = node;
+		for (var s = 0; s < steps; s++) {
+			current = rightTurn[s] ? right[current] : left[current];
+		}
+		return current;
+	}
+
+}
@@ -1,15 +1,17 @@
 package de.knallisworld.aoc2023.day09;
 
+import de.knallisworld.aoc2023.support.math.Polynomials;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.util.StringUtils;
 
 import java.util.List;
-import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 import static de.knallisworld.aoc2023.support.cli.Commons.printHeader;
 import static de.knallisworld.aoc2023.support.cli.Commons.printSolution;
 import static de.knallisworld.aoc2023.support.puzzle.InputParser.str2long;
 import static de.knallisworld.aoc2023.support.puzzle.InputReader.readInputLines;
+import static java.util.stream.Collectors.groupingBy;
 
 @Log4j2
 public class Day09 {
@@ -28,50 +30,36 @@ public class Day09 {
 	}
 
 	static String part1(final List<List<Long>> lines) {
-		final var sum = lines
-				.stream()
-				.mapToLong(Day09::findNextInSeries)
-				.sum();
-		return "sum = %d".formatted(sum);
+		return "sum = %d".formatted(sumExtrapolated(lines, true));
 	}
 
 	static String part2(final List<List<Long>> lines) {
-		final var sum = lines
-				.stream()
-				.mapToLong(Day09::findPrevInSeries)
-				.sum();
-		return "sum = %d".formatted(sum);
-	}
-
-	private static long findNextInSeries(final List<Long> numbers) {
-
-		if (numbers.stream().allMatch(n -> n == 0)) {
-			return 0;
-		}
-
-		final var diffNumbers = IntStream
-				.range(1, numbers.size())
-				.boxed()
-				.map(i -> numbers.get(i) - numbers.get(i - 1))
-				.toList();
-
-		return numbers.getLast() + findNextInSeries(diffNumbers);
+		return "sum = %d".formatted(sumExtrapolated(lines, false));
 	}
 
-	private static long findPrevInSeries(final List<Long> numbers) {
-
-		if (numbers.stream().allMatch(n -> n == 0)) {
-			return 0;
-		}
-
-		final var diffNumbers = IntStream
-				.range(1, numbers.size())
-				.boxed()
-				.map(i -> numbers.get(i) - numbers.get(i - 1))
-				.toList();
-
-		return numbers.getFirst() - findPrevInSeries(diffNumbers);
+	/**
+	 * Extrapolates all series in batches of equal length, either the next or the previous value.
+	 */
+	static long sumExtrapolated(final List<List<Long>> lines, final boolean next) {
+		return lines
+				.stream()
+				.collect(groupingBy(List::size))
+				.values()
+				.stream()
+				.mapToLong(batch -> {
+					final var series = batch.size();
+					final var length = batch.getFirst().size();
+					final var values = new long[series * length];
+					for (var s = 0; s < series; s++) {
+						final var numbers = batch.get(s);
+						for (var i = 0; i < length; i++) {
+							values[i * series + s] = numbers.get(i);
+						}
+					}
+					return LongStream.of(Polynomials.extrapolate(values, series, next ? length : -1))
+									 .sum();
+				})
+				.sum();
 	}
 
 }
-
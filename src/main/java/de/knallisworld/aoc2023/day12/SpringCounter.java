@@ -0,0 +1,160 @@
+package de.knallisworld.aoc2023.day12;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Counts the arrangements of a spring row with a DP over (position, group index).
+ * <p>
+ * Records are plain ASCII bytes ('.', '#', '?'), groups are ints. A group is always placed as a whole: it fits at i
+ * if the run of non-operational records starting at i is long enough and the record right behind it is not damaged.
+ * That makes the run length dimension implicit, each row is O(n·m) with two rolling rows.
+ * <p>
+ * An instance keeps its tables and grows them as needed, so it is cheap to count millions of rows with it. It is not
+ * thread-safe, use one instance per thread.
+ */
+class SpringCounter {
+
+	static final byte OPERATIONAL = '.';
+	static final byte DAMAGED = '#';
+	static final byte UNKNOWN = '?';
+
+	private byte[] records = new byte[0];
+	private int[] groups = new int[0];
+	// run[i] = number of consecutive non-operational records starting at i
+	private int[] run = new int[0];
+	// damagedAhead[i] = whether any record at i or later is damaged
+	private boolean[] damagedAhead = new boolean[0];
+	private long[] next = new long[0];
+	private long[] current = new long[0];
+
+	static byte[] encode(final List<Day12.Type> records) {
+		final var result = new byte[records.size()];
+		for (var i = 0; i < result.length; i++) {
+			result[i] = switch (records.get(i)) {
+				case Unknown -> UNKNOWN;
+				case Operational -> OPERATIONAL;
+				case Damaged -> DAMAGED;
+			};
+		}
+		return result;
+	}
+
+	/**
+	 * @param unfold number of copies, joined by an unknown record
+	 * @throws ArithmeticException if the count does not fit into a long, see {@link #countExact(byte[], int[], int)}
+	 */
+	long count(final byte[] records, final int[] groups, final int unfold) {
+		final var n = prepare(records, groups, unfold);
+		final var m = groups.length * unfold;
+
+		// last row: no group left, valid as long as no damaged record follows
+		for (var i = 0; i <= n; i++) {
+			next[i] = damagedAhead[i] ? 0 : 1;
+		}
+		for (var j = m - 1; j >= 0; j--) {
+			final var g = this.groups[j];
+			current[n] = 0;
+			for (var i = n - 1; i >= 0; i--) {
+				var ways = 0L;
+				final var r = this.records[i];
+				if (r != DAMAGED) {
+					ways = current[i + 1];
+				}
+				if (r != OPERATIONAL && fits(i, g, n)) {
+					ways = Math.addExact(ways, next[Math.min(i + g + 1, n)]);
+				}
+				current[i] = ways;
+			}
+			final var t = next;
+			next = current;
+			current = t;
+		}
+		return next[0];
+	}
+
+	/**
+	 * Same as {@link #count(byte[], int[], int)}, but cannot overflow.
+	 */
+	BigInteger countExact(final byte[] records, final int[] groups, final int unfold) {
+		final var n = prepare(records, groups, unfold);
+		final var m = groups.length * unfold;
+
+		var nextRow = new BigInteger[n + 1];
+		var currentRow = new BigInteger[n + 1];
+		for (var i = 0; i <= n; i++) {
+			nextRow[i] = damagedAhead[i] ? BigInteger.ZERO : BigInteger.ONE;
+		}
+		for (var j = m - 1; j >= 0; j--) {
+			final var g = this.groups[j];
+			currentRow[n] = BigInteger.ZERO;
+			for (var i = n - 1; i >= 0; i--) {
+				var ways = BigInteger.ZERO;
+				final var r = this.records[i];
+				if (r != DAMAGED) {
+					ways = currentRow[i + 1];
+				}
+				if (r != OPERATIONAL && fits(i, g, n)) {
+					ways = ways.add(nextRow[Math.min(i + g + 1, n)]);
+				}
+				currentRow[i] = ways;
+			}
+			final var t = nextRow;
+			nextRow = currentRow;
+			currentRow = t;
+		}
+		return nextRow[0];
+	}
+
+	private boolean fits(final int i, final int g, final int n) {
+		return run[i] >= g && (i + g == n || records[i + g] != DAMAGED);
+	}
+
+	/**
+	 * Unfolds into the reusable buffers and precomputes the runs.
+	 *
+	 * @return the unfolded length
+	 */
+	private int prepare(final byte[] records, final int[] groups, final int unfold) {
+		if (unfold < 1) {
+			throw new IllegalArgumentException("unfold must be positive");
+		}
+		final var n = Math.addExact(Math.multiplyExact(records.length, unfold), unfold - 1);
+		final var m = Math.multiplyExact(groups.length, unfold);
+		ensureCapacity(n, m);
+
+		for (var k = 0; k < unfold; k++) {
+			final var offset = k * (records.length + 1);
+			System.arraycopy(records, 0, this.records, offset, records.length);
+			if (k > 0) {
+				this.records[offset - 1] = UNKNOWN;
+			}
+			System.arraycopy(groups, 0, this.groups, k * groups.length, groups.length);
+		}
+
+		run[n] = 0;
+		damagedAhead[n] = false;
+		for (var i = n - 1; i >= 0; i--) {
+			final var r = this.records[i];
+			run[i] = r == OPERATIONAL ? 0 : run[i + 1] + 1;
+			damagedAhead[i] = r == DAMAGED || damagedAhead[i + 1];
+		}
+		return n;
+	}
+
+	private void ensureCapacity(final int n, final int m) {
+		if (run.length <= n) {
+			final var capacity = Math.max(n, records.length * 2);
+			records = Arrays.copyOf(records, capacity);
+			run = new int[capacity + 1];
+			damagedAhead = new boolean[capacity + 1];
+			next = new long[capacity + 1];
+			current = new long[capacity + 1];
+		}
+		if (groups.length < m) {
+			groups = Arrays.copyOf(groups, Math.max(m, groups.length * 2));
+		}
+	}
+
+}
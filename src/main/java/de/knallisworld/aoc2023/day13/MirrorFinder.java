@@ -0,0 +1,80 @@
+package de.knallisworld.aoc2023.day13;
+
+import de.knallisworld.aoc2023.support.geo.grid2.FixGrid;
+
+/**
+ * Finds reflection lines with each row and each column encoded once as a bitmask (rock = 1).
+ * <p>
+ * The number of differing cells between two rows is the popcount of their XOR. A line is a reflection with exactly
+ * n smudges if these popcounts, summed over all mirrored pairs, are n: 0 for a plain mirror, 1 for a smudged one.
+ */
+class MirrorFinder {
+
+	private final long[] rows;
+	private final long[] columns;
+
+	private MirrorFinder(final long[] rows, final long[] columns) {
+		this.rows = rows;
+		this.columns = columns;
+	}
+
+	static MirrorFinder of(final FixGrid<Day13.Tile> pattern) {
+		final var height = pattern.getHeight();
+		final var width = pattern.getWidth();
+		if (height > Long.SIZE || width > Long.SIZE) {
+			throw new IllegalArgumentException("pattern too large: %dx%d".formatted(width, height));
+		}
+		final var rows = new long[height];
+		final var columns = new long[width];
+		for (var y = 0; y < height; y++) {
+			for (var x = 0; x < width; x++) {
+				if (pattern.getValueRequired(x, y) == Day13.Tile.Rock) {
+					rows[y] |= 1L << x;
+					columns[x] |= 1L << y;
+				}
+			}
+		}
+		return new MirrorFinder(rows, columns);
+	}
+
+	/**
+	 * @return the number of lines above/left of the first reflection line with exactly the given smudges, 0 if none
+	 */
+	static int find(final long[] lines, final int smudges) {
+		for (var line = 1; line < lines.length; line++) {
+			var diff = 0;
+			for (int a = line - 1, b = line; a >= 0 && b < lines.length && diff <= smudges; a--, b++) {
+				diff += Long.bitCount(lines[a] ^ lines[b]);
+			}
+			if (diff == smudges) {
+				return line;
+			}
+		}
+		return 0;
+	}
+
+	int rowsAbove(final int smudges) {
+		return find(rows, smudges);
+	}
+
+	int columnsLeft(final int smudges) {
+		return find(columns, smudges);
+	}
+
+	/**
+	 * @return columns left plus 100 times rows above of the reflection
+	 * @throws IllegalStateException if there is no reflection
+	 */
+	int summarize(final int smudges) {
+		final var columnsLeft = columnsLeft(smudges);
+		if (columnsLeft > 0) {
+			return columnsLeft;
+		}
+		final var rowsAbove = rowsAbove(smudges);
+		if (rowsAbove > 0) {
+			return 100 * rowsAbove;
+		}
+		throw new IllegalStateException("at least one mirror required");
+	}
+
+}
@@ -0,0 +1,263 @@
+package de.knallisworld.aoc2023.day14;
+
+import de.knallisworld.aoc2023.support.geo.grid2.Direction;
+import de.knallisworld.aoc2023.support.geo.grid2.FixGrid;
+
+import java.util.Arrays;
+
+/**
+ * Tilts a platform on bitboards, without rotating it.
+ * <p>
+ * Rocks and dishes are kept as one bitset per row (bit = x) and one per column (bit = y); only one of the dish
+ * representations is current at a time, the other one is restored by a blockwise 64x64 bit transpose when needed.
+ * The fixed rocks cut every line into segments, precomputed once. Tilting a line counts the dishes per segment
+ * (popcount over the segment's words) and packs them against the segment's start or end.
+ * <p>
+ * The load only changes on north/south tilts, where it is summed up from the packed segments on the fly.
+ */
+class TiltEngine {
+
+	private final int width;
+	private final int height;
+
+	private final long[][] dishRows;
+	private final long[][] dishColumns;
+	private boolean rowsCurrent = true;
+
+	// per line: start, end (exclusive) of every run without rocks
+	private final int[][] rowSegments;
+	private final int[][] columnSegments;
+
+	private long load;
+
+	private TiltEngine(final int width, final int height) {
+		this.width = width;
+		this.height = height;
+		this.dishRows = new long[height][words(width)];
+		this.dishColumns = new long[width][words(height)];
+		this.rowSegments = new int[height][];
+		this.columnSegments = new int[width][];
+	}
+
+	static TiltEngine of(final FixGrid<Day14.Tile> grid) {
+		final var engine = new TiltEngine(grid.getWidth(), grid.getHeight());
+		final var rockRows = new long[engine.height][words(engine.width)];
+		for (var y = 0; y < engine.height; y++) {
+			for (var x = 0; x < engine.width; x++) {
+				switch (grid.getValueRequired(x, y)) {
+					case Rock -> rockRows[y][x >>> 6] |= 1L << x;
+					case Dish -> {
+						engine.dishRows[y][x >>> 6] |= 1L << x;
+						engine.load += engine.height - y;
+					}
+					case Empty -> {
+					}
+				}
+			}
+		}
+		final var rockColumns = new long[engine.width][words(engine.height)];
+		transpose(rockRows, engine.width, rockColumns);
+		for (var y = 0; y < engine.height; y++) {
+			engine.rowSegments[y] = segments(rockRows[y], engine.width);
+		}
+		for (var x = 0; x < engine.width; x++) {
+			engine.columnSegments[x] = segments(rockColumns[x], engine.height);
+		}
+		return engine;
+	}
+
+	private static int words(final int bits) {
+		return (bits + 63) >>> 6;
+	}
+
+	private static int[] segments(final long[] rocks, final int size) {
+		var result = new int[8];
+		var count = 0;
+		var start = 0;
+		while (start < size) {
+			final var end = nextRock(rocks, start, size);
+			if (end > start) {
+				if (count + 2 > result.length) {
+					result = Arrays.copyOf(result, result.length * 2);
+				}
+				result[count++] = start;
+				result[count++] = end;
+			}
+			start = end + 1;
+		}
+		return Arrays.copyOf(result, count);
+	}
+
+	private static int nextRock(final long[] rocks, final int from, final int size) {
+		var w = from >>> 6;
+		var word = rocks[w] & (-1L << from);
+		while (word == 0) {
+			if (++w == rocks.length) {
+				return size;
+			}
+			word = rocks[w];
+		}
+		return Math.min(size, (w << 6) + Long.numberOfTrailingZeros(word));
+	}
+
+	long load() {
+		return load;
+	}
+
+	void tilt(final Direction dir) {
+		switch (dir) {
+			case North -> load = tiltLines(columns(), columnSegments, true, height);
+			case South -> load = tiltLines(columns(), columnSegments, false, height);
+			case West -> tiltLines(rows(), rowSegments, true, width);
+			case East -> tiltLines(rows(), rowSegments, false, width);
+		}
+	}
+
+	/**
+	 * One spin cycle: north, west, south, east
+	 */
+	void spin() {
+		tilt(Direction.North);
+		tilt(Direction.West);
+		tilt(Direction.South);
+		tilt(Direction.East);
+	}
+
+	/**
+	 * @return a copy of the dish positions, comparable by {@link State#equals(Object)}
+	 */
+	State state() {
+		final var rows = rows();
+		final var result = new long[height * rows[0].length];
+		for (var y = 0; y < height; y++) {
+			System.arraycopy(rows[y], 0, result, y * rows[y].length, rows[y].length);
+		}
+		return new State(result);
+	}
+
+	boolean isDish(final int x, final int y) {
+		return (rows()[y][x >>> 6] & 1L << x) != 0;
+	}
+
+	record State(long[] dishes) {
+
+		@Override
+		public boolean equals(final Object o) {
+			return o instanceof State other && Arrays.equals(dishes, other.dishes);
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(dishes);
+		}
+
+	}
+
+	private long[][] rows() {
+		if (!rowsCurrent) {
+			transpose(dishColumns, height, dishRows);
+			rowsCurrent = true;
+		}
+		return dishRows;
+	}
+
+	private long[][] columns() {
+		if (rowsCurrent) {
+			transpose(dishRows, width, dishColumns);
+			rowsCurrent = false;
+		}
+		return dishColumns;
+	}
+
+	/**
+	 * Packs the dishes of every segment to its start (towards bit 0) or its end.
+	 *
+	 * @return sum of (size - index) over all dishes, which is the load for columns
+	 */
+	private static long tiltLines(final long[][] lines, final int[][] segments, final boolean towardsStart, final int size) {
+		var weight = 0L;
+		for (var i = 0; i < lines.length; i++) {
+			final var line = lines[i];
+			final var bounds = segments[i];
+			for (var s = 0; s < bounds.length; s += 2) {
+				final var start = bounds[s];
+				final var end = bounds[s + 1];
+				final var count = count(line, start, end);
+				if (count == 0) {
+					continue;
+				}
+				final var from = towardsStart ? start : end - count;
+				clear(line, start, end);
+				set(line, from, from + count);
+				weight += (long) count * (size - from) - (long) count * (count - 1) / 2;
+			}
+		}
+		return weight;
+	}
+
+	private static long mask(final int from, final int to) {
+		// bits [from, to) within a word, to in (from, 64]
+		return (-1L << from) & (-1L >>> (64 - to));
+	}
+
+	private static int count(final long[] line, final int from, final int to) {
+		var result = 0;
+		for (var w = from >>> 6; w <= (to - 1) >>> 6; w++) {
+			final var lo = Math.max(from, w << 6) - (w << 6);
+			final var hi = Math.min(to, (w + 1) << 6) - (w << 6);
+			result += Long.bitCount(line[w] & mask(lo, hi));
+		}
+		return result;
+	}
+
+	private static void clear(final long[] line, final int from, final int to) {
+		for (var w = from >>> 6; w <= (to - 1) >>> 6; w++) {
+			final var lo = Math.max(from, w << 6) - (w << 6);
+			final var hi = Math.min(to, (w + 1) << 6) - (w << 6);
+			line[w] &= ~mask(lo, hi);
+		}
+	}
+
+	private static void set(final long[] line, final int from, final int to) {
+		for (var w = from >>> 6; w <= (to - 1) >>> 6; w++) {
+			final var lo = Math.max(from, w << 6) - (w << 6);
+			final var hi = Math.min(to, (w + 1) << 6) - (w << 6);
+			line[w] |= mask(lo, hi);
+		}
+	}
+
+	/**
+	 * Transposes the bit matrix: bit x of src[y] becomes bit y of dst[x].
+	 *
+	 * @param bits number of bits per src line (= number of dst lines)
+	 */
+	static void transpose(final long[][] src, final int bits, final long[][] dst) {
+		final var block = new long[64];
+		for (var by = 0; by < src.length; by += 64) {
+			for (var bx = 0; bx < bits; bx += 64) {
+				for (var i = 0; i < 64; i++) {
+					block[i] = by + i < src.length ? src[by + i][bx >>> 6] : 0;
+				}
+				transpose64(block);
+				for (var j = 0; j < 64 && bx + j < bits; j++) {
+					dst[bx + j][by >>> 6] = block[j];
+				}
+			}
+		}
+	}
+
+	/**
+	 * In-place transpose of a 64x64 bit block (bit j of a[i] swaps with bit i of a[j]), by recursive block swaps.
+	 */
+	static void transpose64(final long[] a) {
+		var m = 0x00000000FFFFFFFFL;
+		for (var j = 32; j != 0; j >>>= 1, m ^= m << j) {
+			for (var k = 0; k < 64; k = ((k | j) + 1) & ~j) {
+				final var t = ((a[k] >>> j) ^ a[k | j]) & m;
+				a[k] ^= t << j;
+				a[k | j] ^= t;
+			}
+		}
+	}
+
+}
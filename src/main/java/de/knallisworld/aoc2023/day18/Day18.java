@@ -1,20 +1,15 @@
 package de.knallisworld.aoc2023.day18;
 
-import de.knallisworld.aoc2023.support.geo.Point2D;
+import de.knallisworld.aoc2023.support.geo.PolygonAccumulator;
 import de.knallisworld.aoc2023.support.geo.grid2.Direction;
-import de.knallisworld.aoc2023.support.geo.grid2.DynGrid;
-import de.knallisworld.aoc2023.support.geo.grid2.FixGrid;
 import lombok.extern.log4j.Log4j2;
 
 import java.util.HexFormat;
 import java.util.List;
-import java.util.stream.Stream;
 
 import static de.knallisworld.aoc2023.support.cli.Commons.printHeader;
 import static de.knallisworld.aoc2023.support.cli.Commons.printSolution;
 import static de.knallisworld.aoc2023.support.puzzle.InputReader.readInputLines;
-import static java.util.function.Function.identity;
-import static java.util.function.Predicate.not;
 
 @Log4j2
 public class Day18 {
@@ -53,20 +48,7 @@ public class Day18 {
 	}
 
 	static String part1(final Input input) {
-
-		final var grid = FixGrid.of(
-				buildGridByInstructions(input.instructions),
-				Boolean.class,
-				false
-		);
-		fillEnclosedGridAreas(grid);
-
-		final var filled = grid.fields()
-							   .stream()
-							   .filter(FixGrid.FieldsView.Field::value)
-							   .count();
-
-		return "filled amount = %d".formatted(filled);
+		return "filled amount = %d".formatted(measure(input).covered());
 	}
 
 	static Input decodeInput(final Input input) {
@@ -89,79 +71,15 @@ public class Day18 {
 	}
 
 	static String part2(final Input input) {
-
-		// count with shoelace / gauss
-		// https://de.wikipedia.org/wiki/Gau%C3%9Fsche_Trapezformel
-		var p = Point2D.create(0, 0);
-		var sum = 0L;
-		var perimeter = 0L;
-		for (final var ins : input.instructions) {
-			var n = p;
-			n = n.add(ins.dir.offset().times(ins.amount));
-			perimeter += ins.amount;
-			// here we go. yeah, here was an int overflow (hidden, unseen for.. wait.. hours)
-			sum += p.getX().longValue() * n.getY() - p.getY().longValue() * n.getX();
-			p = n;
-		}
-		if (!p.equals(Point2D.create(0, 0))) {
-			throw new IllegalStateException("invalid state");
-		}
-
-		// Gauss
-		// 2*A = SUM((x1 * y2) - (x2 * y1))
-		final var area = sum / 2;
-		// Pick's theorem: A = len(i) + (len(b) / 2) - 1
-		// len(i) == filled (searching)
-		// len(b) == perimeter
-		final var filled = area + 1 + perimeter / 2;
-
-		return "filled amount = %d".formatted(filled);
-	}
-
-	static DynGrid<Integer, Boolean> buildGridByInstructions(final List<Instruction> instructions) {
-		final var dynGrid = DynGrid.<Integer, Boolean>empty();
-		var p = Point2D.create(0, 0);
-		dynGrid.setValue(p, true);
-		for (final var ins : instructions) {
-			for (var i = 0; i < ins.amount; i++) {
-				p = p.add(ins.dir.offset());
-				dynGrid.setValue(p, true);
-			}
-		}
-		return dynGrid;
+		return "filled amount = %d".formatted(measure(input).covered());
 	}
 
-	static void fillEnclosedGridAreas(final FixGrid<Boolean> grid) {
-		// build reverted map for filling
-		final var reverted = FixGrid.copy(grid);
-		Stream.of(
-					  reverted.fields().topEdge(),
-					  reverted.fields().rightEdge(),
-					  reverted.fields().bottomEdge(),
-					  reverted.fields().leftEdge()
-			  )
-			  .flatMap(identity())
-			  .distinct()
-			  .filter(not(grid::getValueRequired))
-			  .forEach(fp -> {
-				  reverted.fields().getCluster4(fp, not(FixGrid.FieldsView.Field::value))
-						  .forEach(c -> reverted.setValue(c, true));
-			  });
-		// fields left (not filled) what we are looking for
-		reverted.fields()
+	static PolygonAccumulator measure(final Input input) {
+		// count with shoelace / gauss and Pick's theorem, no grid required
+		// https://de.wikipedia.org/wiki/Gau%C3%9Fsche_Trapezformel
+		return input.instructions
 				.stream()
-				.filter(not(FixGrid.FieldsView.Field::value))
-				.forEach(f -> grid.setValue(f.pos(), true));
-	}
-
-	private static void renderGrid(FixGrid<Boolean> grid) {
-		System.out.println(grid.toString((_, v) -> {
-			if (v) {
-				return "#";
-			} else {
-				return " ";
-			}
-		}));
+				.collect(PolygonAccumulator.collector(Instruction::dir, Instruction::amount));
 	}
 
 }
@@ -0,0 +1,247 @@
+package de.knallisworld.aoc2023.day19;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Index over the accepted boxes of a {@link WorkflowProgram}.
+ * <p>
+ * Boxes are int[8] as [xMin, mMin, aMin, sMin, xMax, mMax, aMax, sMax] (half-open) and disjoint. They are organized
+ * in a k-d partition: each inner node splits its region at one coordinate, boxes crossing the split are clipped into
+ * both halves. Every node knows the accepted volume of its region, so a volume query only descends where the query
+ * box cuts through a node's region.
+ */
+class AcceptedRegions {
+
+	static final int MIN = 1;
+	static final int MAX = 4001;
+
+	private static final int DIMENSIONS = 4;
+	private static final int LEAF_SIZE = 8;
+
+	private final Node root;
+	private final List<int[]> boxes;
+
+	private AcceptedRegions(final Node root, final List<int[]> boxes) {
+		this.root = root;
+		this.boxes = boxes;
+	}
+
+	/**
+	 * Index for all ratings in [1, 4000]
+	 */
+	static AcceptedRegions of(final WorkflowProgram program) {
+		return of(program.acceptedBoxes(MIN, MAX), new int[]{MIN, MIN, MIN, MIN, MAX, MAX, MAX, MAX});
+	}
+
+	/**
+	 * @param boxes  disjoint boxes
+	 * @param region box containing all of them
+	 */
+	static AcceptedRegions of(final List<int[]> boxes, final int[] region) {
+		final var copies = boxes.stream().map(int[]::clone).toList();
+		return new AcceptedRegions(build(new ArrayList<>(copies), region.clone()), copies);
+	}
+
+	/**
+	 * The accepted boxes (copies)
+	 */
+	List<int[]> boxes() {
+		return boxes.stream().map(int[]::clone).toList();
+	}
+
+	/**
+	 * Number of accepted ratings
+	 */
+	long volume() {
+		return root.volume;
+	}
+
+	boolean accepts(final Day19.Rating rating) {
+		return accepts(rating.x(), rating.m(), rating.a(), rating.s());
+	}
+
+	boolean accepts(final int x, final int m, final int a, final int s) {
+		final var point = new int[]{x, m, a, s};
+		var node = root;
+		while (node.boxes == null) {
+			node = point[node.dim] < node.split ? node.lower : node.upper;
+		}
+		for (final var box : node.boxes) {
+			if (contains(box, point)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Number of accepted ratings inside the query box.
+	 *
+	 * @param query [xMin, mMin, aMin, sMin, xMax, mMax, aMax, sMax], half-open
+	 */
+	long volume(final int[] query) {
+		return volume(root, query);
+	}
+
+	private static long volume(final Node node, final int[] query) {
+		if (node.volume == 0 || !intersects(node.region, query)) {
+			return 0;
+		}
+		if (covers(query, node.region)) {
+			return node.volume;
+		}
+		if (node.boxes != null) {
+			var sum = 0L;
+			for (final var box : node.boxes) {
+				sum += intersectionVolume(box, query);
+			}
+			return sum;
+		}
+		return volume(node.lower, query) + volume(node.upper, query);
+	}
+
+	private static class Node {
+		final int[] region;
+		final long volume;
+		// inner node
+		int dim;
+		int split;
+		Node lower;
+		Node upper;
+		// leaf
+		List<int[]> boxes;
+
+		Node(final int[] region, final long volume) {
+			this.region = region;
+			this.volume = volume;
+		}
+	}
+
+	private static Node build(final List<int[]> boxes, final int[] region) {
+		var volume = 0L;
+		for (final var box : boxes) {
+			volume += boxVolume(box);
+		}
+		final var node = new Node(region, volume);
+		if (boxes.size() > LEAF_SIZE) {
+			// the widest dimension having box boundaries inside the region, split at their median
+			var dim = -1;
+			var split = 0;
+			for (var d = 0; d < DIMENSIONS; d++) {
+				if (dim >= 0 && width(region, d) <= width(region, dim)) {
+					continue;
+				}
+				final var candidate = medianBoundary(boxes, region, d);
+				if (candidate > region[d]) {
+					dim = d;
+					split = candidate;
+				}
+			}
+			if (dim >= 0) {
+				final var lower = new ArrayList<int[]>();
+				final var upper = new ArrayList<int[]>();
+				for (final var box : boxes) {
+					if (box[dim] < split) {
+						final var clipped = box.clone();
+						clipped[dim + DIMENSIONS] = Math.min(clipped[dim + DIMENSIONS], split);
+						lower.add(clipped);
+					}
+					if (box[dim + DIMENSIONS] > split) {
+						final var clipped = box.clone();
+						clipped[dim] = Math.max(clipped[dim], split);
+						upper.add(clipped);
+					}
+				}
+				// only worth it if it actually separates something
+				if (lower.size() < boxes.size() || upper.size() < boxes.size()) {
+					final var lowerRegion = region.clone();
+					lowerRegion[dim + DIMENSIONS] = split;
+					final var upperRegion = region.clone();
+					upperRegion[dim] = split;
+					node.dim = dim;
+					node.split = split;
+					node.lower = build(lower, lowerRegion);
+					node.upper = build(upper, upperRegion);
+					return node;
+				}
+			}
+		}
+		node.boxes = List.copyOf(boxes);
+		return node;
+	}
+
+	private static int width(final int[] region, final int dim) {
+		return region[dim + DIMENSIONS] - region[dim];
+	}
+
+	/**
+	 * @return the median of the box boundaries strictly inside the region, or the region's min if there are none
+	 */
+	private static int medianBoundary(final List<int[]> boxes, final int[] region, final int dim) {
+		final var values = new int[boxes.size() * 2];
+		var n = 0;
+		for (final var box : boxes) {
+			if (box[dim] > region[dim]) {
+				values[n++] = box[dim];
+			}
+			if (box[dim + DIMENSIONS] < region[dim + DIMENSIONS]) {
+				values[n++] = box[dim + DIMENSIONS];
+			}
+		}
+		if (n == 0) {
+			return region[dim];
+		}
+		Arrays.sort(values, 0, n);
+		return values[n / 2];
+	}
+
+	static long boxVolume(final int[] box) {
+		var result = 1L;
+		for (var d = 0; d < DIMENSIONS; d++) {
+			result *= Math.max(0, box[d + DIMENSIONS] - box[d]);
+		}
+		return result;
+	}
+
+	private static long intersectionVolume(final int[] a, final int[] b) {
+		var result = 1L;
+		for (var d = 0; d < DIMENSIONS; d++) {
+			final var length = Math.min(a[d + DIMENSIONS], b[d + DIMENSIONS]) - Math.max(a[d], b[d]);
+			if (length <= 0) {
+				return 0;
+			}
+			result *= length;
+		}
+		return result;
+	}
+
+	private static boolean intersects(final int[] a, final int[] b) {
+		for (var d = 0; d < DIMENSIONS; d++) {
+			if (a[d] >= b[d + DIMENSIONS] || b[d] >= a[d + DIMENSIONS]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean covers(final int[] outer, final int[] inner) {
+		for (var d = 0; d < DIMENSIONS; d++) {
+			if (outer[d] > inner[d] || inner[d + DIMENSIONS] > outer[d + DIMENSIONS]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean contains(final int[] box, final int[] point) {
+		for (var d = 0; d < DIMENSIONS; d++) {
+			if (point[d] < box[d] || point[d] >= box[d + DIMENSIONS]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -3,15 +3,11 @@ package de.knallisworld.aoc2023.day19;
 import lombok.extern.log4j.Log4j2;
 
 import java.util.*;
-import java.util.function.Function;
-import java.util.stream.Stream;
 
 import static de.knallisworld.aoc2023.support.cli.Commons.printHeader;
 import static de.knallisworld.aoc2023.support.cli.Commons.printSolution;
 import static de.knallisworld.aoc2023.support.puzzle.InputReader.readInputLines;
-import static java.util.function.Function.identity;
 import static java.util.function.Predicate.not;
-import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toMap;
 
 @Log4j2
@@ -186,31 +182,12 @@ public class Day19 {
 	static String part1(final Input input) {
 		final var accepted = new ArrayList<Rating>();
 		final var rejected = new ArrayList<Rating>();
-		final var startWorkflow = input.workflows
-				.stream()
-				.filter(w -> "in".equals(w.name()))
-				.findFirst()
-				.orElseThrow();
+		final var program = WorkflowProgram.compile(input.workflows, "in");
 		input.ratings.forEach(rating -> {
-			String result;
-			var workflow = startWorkflow;
-			while (true) {
-				result = workflow.process(rating).orElseThrow();
-				if ("A".equals(result)) {
-					accepted.add(rating);
-					break;
-				} else if ("R".equals(result)) {
-					rejected.add(rating);
-					break;
-				} else {
-					// find next
-					for (final var w : input.workflows) {
-						if (w.name().equals(result)) {
-							workflow = w;
-							break;
-						}
-					}
-				}
+			if (program.accepts(rating)) {
+				accepted.add(rating);
+			} else {
+				rejected.add(rating);
 			}
 		});
 		final var sum = accepted.stream()
@@ -223,108 +200,9 @@ public class Day19 {
 		);
 	}
 
-	record Range(Map<String, Integer> min, Map<String, Integer> max) {
-
-		@Override
-		public String toString() {
-			return Stream
-					.of("x", "m", "a", "s")
-					.map(k -> "%s=[%d,%d]".formatted(k, min.get(k), max.get(k)))
-					.collect(joining(", "));
-		}
-	}
-
-	record Rule(String label, Range range) {
-	}
-
-	static List<Rule> splitRules(final Condition.Full expr, final Range range) {
-		final var rules = new ArrayList<Rule>();
-		if (range.min.get(expr.var) < expr.n) {
-			final var min = new HashMap<>(range.min);
-			final var max = new HashMap<>(range.max);
-			max.put(expr.var, ">".equals(expr.op) ? expr.n + 1 : expr.n);
-			rules.add(new Rule(
-					switch (expr.op) {
-						case "<" -> range.min.get(expr.var) < expr.n;
-						case ">" -> range.min.get(expr.var) > expr.n;
-						default -> throw new IllegalStateException("invalid op");
-					}
-							? expr.label
-							: "",
-					new Range(min, max)
-			));
-		}
-		if (range.max.get(expr.var) > expr.n) {
-			final var min = new HashMap<>(range.min);
-			final var max = new HashMap<>(range.max);
-			min.put(expr.var, ">".equals(expr.op) ? expr.n + 1 : expr.n);
-			rules.add(new Rule(
-					switch (expr.op) {
-						case "<" -> range.max.get(expr.var) < expr.n;
-						case ">" -> range.max.get(expr.var) > expr.n;
-						default -> throw new IllegalStateException("invalid op");
-					}
-							? expr.label
-							: "",
-					new Range(min, max)
-			));
-		}
-		return rules;
-	}
-
-	static long findCombos(final Function<String, Workflow> workflowGetter,
-						   final String workflowName,
-						   final List<Range> rangeList) {
-		var total = 0L;
-		final var newRanges = new ArrayList<Rule>();
-		for (var condition : workflowGetter.apply(workflowName).conditions()) {
-			if (rangeList.isEmpty()) {
-				break;
-			}
-			final var firstRange = rangeList.removeFirst();
-			final var split = condition.raw().contains(":")
-					? splitRules(condition.extractFull(), firstRange)
-					: List.of(new Rule(condition.raw(), firstRange));
-			for (var splitItem : split) {
-				switch (splitItem.label) {
-					case "" -> rangeList.add(splitItem.range);
-					case "R" -> {
-						// nothing
-					}
-					case "A" -> total += Stream.of("x", "m", "a", "s")
-											   .mapToLong(v -> splitItem.range.max.get(v) - splitItem.range.min.get(v))
-											   .reduce(1L, (a, c) -> a * c);
-					default -> newRanges.add(splitItem);
-				}
-			}
-		}
-
-		return total + newRanges
-				.stream()
-				.mapToLong(newRange -> findCombos(
-						workflowGetter,
-						newRange.label,
-						new ArrayList<>(List.of(newRange.range))
-				))
-				.sum();
-	}
-
-
 	static String part2(final Input input) {
-		final var min = new HashMap<String, Integer>();
-		final var max = new HashMap<String, Integer>();
-		Stream.of("x", "m", "a", "s").forEach(var -> {
-			min.put(var, 1);
-			max.put(var, 4001);
-		});
-
-		final var workflowMap = input.workflows
-				.stream()
-				.collect(toMap(Workflow::name, identity()));
-
-		final var distinct = findCombos(workflowMap::get, "in", new ArrayList<>(List.of(new Range(min, max))));
-		return "distinct = %d".formatted(distinct);
+		final var regions = AcceptedRegions.of(WorkflowProgram.compile(input.workflows, "in"));
+		return "distinct = %d".formatted(regions.volume());
 	}
 
 }
-
@@ -0,0 +1,264 @@
+package de.knallisworld.aoc2023.day19;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Workflows compiled into a flat int-coded program.
+ * <p>
+ * Every condition is one instruction of four ints: variable index (x=0, m=1, a=2, s=3), op, threshold and jump
+ * target. A target is either the first instruction of another workflow or one of the terminal codes
+ * {@link #ACCEPT}/{@link #REJECT}; if a condition does not match, execution falls through to the next instruction.
+ * Classifying a rating is a loop over a few array reads and compares, no strings, no lookups.
+ * <p>
+ * Optionally, {@link #toMethodHandle()} translates the program into bytecode of a hidden class, so the JIT can treat
+ * the whole decision tree as straight-line code.
+ */
+class WorkflowProgram {
+
+	static final int OP_LT = 0;
+	static final int OP_GT = 1;
+	static final int OP_ALWAYS = 2;
+
+	static final int ACCEPT = -1;
+	static final int REJECT = -2;
+
+	static final String VARIABLES = "xmas";
+
+	private static final int STRIDE = 4;
+
+	// [var, op, threshold, target] per instruction; targets are code offsets
+	private final int[] code;
+	private final int entry;
+
+	private WorkflowProgram(final int[] code, final int entry) {
+		this.code = code;
+		this.entry = entry;
+	}
+
+	/**
+	 * @param workflows all workflows; each must end with an unconditional rule
+	 * @param entry     name of the workflow to start with
+	 */
+	static WorkflowProgram compile(final Collection<Day19.Workflow> workflows, final String entry) {
+		// first pass: the code offset of each workflow
+		final var offsets = new HashMap<String, Integer>();
+		var size = 0;
+		for (final var workflow : workflows) {
+			offsets.put(workflow.name(), size);
+			size += workflow.conditions().size() * STRIDE;
+		}
+		if (!offsets.containsKey(entry)) {
+			throw new IllegalArgumentException("unknown workflow: " + entry);
+		}
+
+		// second pass: emit
+		final var code = new int[size];
+		var pc = 0;
+		for (final var workflow : workflows) {
+			final var conditions = workflow.conditions();
+			for (var i = 0; i < conditions.size(); i++) {
+				final var condition = conditions.get(i);
+				if (condition.raw().contains(":")) {
+					if (i == conditions.size() - 1) {
+						throw new IllegalArgumentException("workflow %s has no fallback".formatted(workflow.name()));
+					}
+					final var full = condition.extractFull();
+					code[pc] = VARIABLES.indexOf(full.var());
+					code[pc + 1] = switch (full.op()) {
+						case "<" -> OP_LT;
+						case ">" -> OP_GT;
+						default -> throw new IllegalArgumentException("invalid op: " + full.op());
+					};
+					code[pc + 2] = full.n();
+					code[pc + 3] = target(offsets, full.label());
+				} else {
+					code[pc + 1] = OP_ALWAYS;
+					code[pc + 3] = target(offsets, condition.raw());
+				}
+				pc += STRIDE;
+			}
+		}
+		return new WorkflowProgram(code, offsets.get(entry));
+	}
+
+	private static int target(final Map<String, Integer> offsets, final String label) {
+		return switch (label) {
+			case "A" -> ACCEPT;
+			case "R" -> REJECT;
+			default -> {
+				final var offset = offsets.get(label);
+				if (offset == null) {
+					throw new IllegalArgumentException("unknown workflow: " + label);
+				}
+				yield offset;
+			}
+		};
+	}
+
+	/**
+	 * Number of instructions
+	 */
+	int size() {
+		return code.length / STRIDE;
+	}
+
+	boolean accepts(final Day19.Rating rating) {
+		return accepts(rating.x(), rating.m(), rating.a(), rating.s());
+	}
+
+	boolean accepts(final int x, final int m, final int a, final int s) {
+		var pc = entry;
+		while (true) {
+			final var op = code[pc + 1];
+			final boolean match;
+			if (op == OP_ALWAYS) {
+				match = true;
+			} else {
+				final var v = switch (code[pc]) {
+					case 0 -> x;
+					case 1 -> m;
+					case 2 -> a;
+					default -> s;
+				};
+				match = op == OP_LT ? v < code[pc + 2] : v > code[pc + 2];
+			}
+			if (!match) {
+				pc += STRIDE;
+				continue;
+			}
+			final var target = code[pc + 3];
+			if (target < 0) {
+				return target == ACCEPT;
+			}
+			pc = target;
+		}
+	}
+
+	/**
+	 * All disjoint boxes of accepted ratings, found by walking the program with a box instead of a rating.
+	 *
+	 * @param min lower bound (inclusive) of every variable
+	 * @param max upper bound (exclusive) of every variable
+	 * @return boxes as [xMin, mMin, aMin, sMin, xMax, mMax, aMax, sMax], half-open
+	 */
+	List<int[]> acceptedBoxes(final int min, final int max) {
+		final var result = new ArrayList<int[]>();
+		final var box = new int[]{min, min, min, min, max, max, max, max};
+		collectAccepted(entry, box, result);
+		return result;
+	}
+
+	private void collectAccepted(final int start, final int[] box, final List<int[]> result) {
+		for (var pc = start; ; pc += STRIDE) {
+			final var op = code[pc + 1];
+			if (op == OP_ALWAYS) {
+				followAccepted(code[pc + 3], box, result);
+				return;
+			}
+			// indices of the variable's bounds within the box
+			final var lo = code[pc];
+			final var hi = lo + 4;
+			// matching part: [min, n) for <, [n + 1, max) for >
+			final var split = op == OP_LT ? code[pc + 2] : code[pc + 2] + 1;
+			final var matching = box.clone();
+			final int[] rest = box;
+			if (op == OP_LT) {
+				matching[hi] = Math.min(matching[hi], split);
+				rest[lo] = Math.max(rest[lo], split);
+			} else {
+				matching[lo] = Math.max(matching[lo], split);
+				rest[hi] = Math.min(rest[hi], split);
+			}
+			if (matching[lo] < matching[hi]) {
+				followAccepted(code[pc + 3], matching, result);
+			}
+			if (rest[lo] >= rest[hi]) {
+				return;
+			}
+		}
+	}
+
+	private void followAccepted(final int target, final int[] box, final List<int[]> result) {
+		switch (target) {
+			case ACCEPT -> result.add(box.clone());
+			case REJECT -> {
+				// nothing
+			}
+			default -> collectAccepted(target, box.clone(), result);
+		}
+	}
+
+	/**
+	 * Generates a hidden class with a static (int x, int m, int a, int s) -> boolean method. Each instruction becomes
+	 * a compare and a conditional jump.
+	 *
+	 * @return handle of type (int, int, int, int)boolean
+	 */
+	MethodHandle toMethodHandle() {
+		final var lookup = MethodHandles.lookup();
+		final var className = lookup.lookupClass().getPackageName().replace('.', '/') + "/CompiledWorkflows";
+		final var cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+		cw.visit(Opcodes.V21, Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, className, null, "java/lang/Object", null);
+
+		final var mv = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "accepts", "(IIII)Z", null, null);
+		mv.visitCode();
+		final var labels = new Label[size()];
+		for (var i = 0; i < labels.length; i++) {
+			labels[i] = new Label();
+		}
+		final var accept = new Label();
+		final var reject = new Label();
+
+		mv.visitJumpInsn(Opcodes.GOTO, labels[entry / STRIDE]);
+		for (var pc = 0; pc < code.length; pc += STRIDE) {
+			mv.visitLabel(labels[pc / STRIDE]);
+			final var target = switch (code[pc + 3]) {
+				case ACCEPT -> accept;
+				case REJECT -> reject;
+				default -> labels[code[pc + 3] / STRIDE];
+			};
+			if (code[pc + 1] == OP_ALWAYS) {
+				mv.visitJumpInsn(Opcodes.GOTO, target);
+			} else {
+				mv.visitVarInsn(Opcodes.ILOAD, code[pc]);
+				mv.visitLdcInsn(code[pc + 2]);
+				mv.visitJumpInsn(code[pc + 1] == OP_LT ? Opcodes.IF_ICMPLT : Opcodes.IF_ICMPGT, target);
+			}
+		}
+		emitReturn(mv, accept, Opcodes.ICONST_1);
+		emitReturn(mv, reject, Opcodes.ICONST_0);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		cw.visitEnd();
+
+		try {
+			final var hidden = lookup.defineHiddenClass(cw.toByteArray(), true);
+			return hidden.findStatic(
+					hidden.lookupClass(),
+					"accepts",
+					MethodType.methodType(boolean.class, int.class, int.class, int.class, int.class)
+			);
+		} catch (final ReflectiveOperationException e) {
+			throw new IllegalStateException("failed to define compiled workflows", e);
+		}
+	}
+
+	private static void emitReturn(final MethodVisitor mv, final Label label, final int constant) {
+		mv.visitLabel(label);
+		mv.visitInsn(constant);
+		mv.visitInsn(Opcodes.IRETURN);
+	}
+
+}
@@ -0,0 +1,193 @@
+package de.knallisworld.aoc2023.day20;
+
+import de.knallisworld.aoc2023.support.math.NumberTheory.Cycle;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static de.knallisworld.aoc2023.support.math.NumberTheory.combineCycles;
+
+/**
+ * Finds the first button press delivering a low pulse to a target module, without simulating until then.
+ * <p>
+ * The condition "edge carries pulse p" is decomposed along the circuit:
+ * <ul>
+ *     <li>a single-input conjunction (inverter) sends high iff its input sends low</li>
+ *     <li>a conjunction sends low iff all of its inputs are high; if the inputs have disjoint ancestor sets, they
+ *     belong to independent sub-circuits and are analyzed separately</li>
+ * </ul>
+ * The remaining leaf conditions are observed in one simulation run: each must occur periodically (first press,
+ * period), which is verified by a third occurrence. The cycles of an AND are combined with the (generalized) chinese
+ * remainder theorem, so sub-circuits may have any phase.
+ * <p>
+ * Like the puzzle's intended solution, it assumes conditions within the same press happen "at the same time".
+ */
+class CircuitAnalyzer {
+
+	static final int DEFAULT_MAX_PRESSES = 1 << 20;
+
+	private sealed interface Condition {
+	}
+
+	// an observed (edge, pulse), slot is the simulator's watch
+	private record Leaf(int index, int slot) implements Condition {
+	}
+
+	private record All(List<Condition> conditions) implements Condition {
+	}
+
+	private record Any(List<Condition> conditions) implements Condition {
+	}
+
+	private final PulseSimulator simulator;
+	private final List<Leaf> leaves = new ArrayList<>();
+	// edges being decomposed, guards against feedback loops
+	private final BitSet path = new BitSet();
+	// first three presses each leaf occurred in
+	private long[][] occurrences;
+
+	private CircuitAnalyzer(final PulseSimulator simulator) {
+		this.simulator = simulator;
+	}
+
+	/**
+	 * @return the first press (1-based) in which the target receives a low pulse
+	 */
+	static long firstLowPulse(final Day20.Network network, final String target) {
+		return firstLowPulse(network, target, DEFAULT_MAX_PRESSES);
+	}
+
+	static long firstLowPulse(final Day20.Network network, final String target, final int maxPresses) {
+		return analyze(network, target, maxPresses).offset();
+	}
+
+	static Cycle analyze(final Day20.Network network, final String target, final int maxPresses) {
+		final var simulator = PulseSimulator.compile(network);
+		final var analyzer = new CircuitAnalyzer(simulator);
+		final var incoming = simulator.incoming(simulator.id(target));
+		if (incoming.length == 0) {
+			throw new IllegalArgumentException("module %s has no inputs".formatted(target));
+		}
+		final var conditions = new ArrayList<Condition>();
+		for (final var edge : incoming) {
+			conditions.add(analyzer.decompose(edge, false));
+		}
+		final var root = conditions.size() == 1 ? conditions.getFirst() : new Any(conditions);
+		analyzer.observe(maxPresses);
+		return analyzer.solve(root);
+	}
+
+	/**
+	 * Condition for "edge carries a high (or low) pulse"
+	 */
+	private Condition decompose(final int edge, final boolean high) {
+		final var source = simulator.source(edge);
+		if (simulator.type(source) != Day20.Type.CONJUNCTION || path.get(edge)) {
+			return leaf(edge, high);
+		}
+		path.set(edge);
+		try {
+			final var inputs = simulator.incoming(source);
+			if (high && inputs.length == 1) {
+				return decompose(inputs[0], false);
+			}
+			// only if every input is driven by its own sub-circuit; the state of dependent inputs is not observable
+			// by pulses alone
+			if (!high && inputs.length > 1 && independent(inputs)) {
+				final var conditions = new ArrayList<Condition>();
+				for (final var input : inputs) {
+					conditions.add(decompose(input, true));
+				}
+				return new All(conditions);
+			}
+			return leaf(edge, high);
+		} finally {
+			path.clear(edge);
+		}
+	}
+
+	private Leaf leaf(final int edge, final boolean high) {
+		final var leaf = new Leaf(leaves.size(), simulator.watch(edge, high));
+		leaves.add(leaf);
+		return leaf;
+	}
+
+	/**
+	 * Whether the ancestors (modules upstream, excluding the broadcaster) of the inputs are pairwise disjoint.
+	 */
+	private boolean independent(final int[] inputs) {
+		final var seen = new BitSet(simulator.size());
+		for (final var edge : inputs) {
+			final var ancestors = ancestors(simulator.source(edge));
+			if (ancestors.intersects(seen)) {
+				return false;
+			}
+			seen.or(ancestors);
+		}
+		return true;
+	}
+
+	private BitSet ancestors(final int module) {
+		final var broadcaster = simulator.id(PulseSimulator.BROADCASTER);
+		final var result = new BitSet(simulator.size());
+		final var stack = new ArrayList<Integer>();
+		stack.add(module);
+		result.set(module);
+		while (!stack.isEmpty()) {
+			final var current = stack.removeLast();
+			for (final var edge : simulator.incoming(current)) {
+				final var source = simulator.source(edge);
+				if (source != broadcaster && !result.get(source)) {
+					result.set(source);
+					stack.add(source);
+				}
+			}
+		}
+		return result;
+	}
+
+	private void observe(final int maxPresses) {
+		occurrences = new long[leaves.size()][3];
+		final var counts = new int[leaves.size()];
+		var pending = leaves.size();
+		simulator.reset();
+		for (var press = 1L; pending > 0; press++) {
+			if (press > maxPresses) {
+				throw new IllegalStateException("no periodic behaviour within %d presses".formatted(maxPresses));
+			}
+			final var fired = simulator.press();
+			if (fired.isEmpty()) {
+				continue;
+			}
+			for (var i = 0; i < counts.length; i++) {
+				if (counts[i] < 3 && fired.get(leaves.get(i).slot())) {
+					occurrences[i][counts[i]++] = press;
+					if (counts[i] == 3) {
+						pending--;
+					}
+				}
+			}
+		}
+	}
+
+	private Cycle solve(final Condition condition) {
+		return switch (condition) {
+			case Leaf leaf -> {
+				final var o = occurrences[leaf.index()];
+				final var period = o[1] - o[0];
+				if (o[2] - o[1] != period) {
+					throw new IllegalStateException("not periodic: %d, %d, %d".formatted(o[0], o[1], o[2]));
+				}
+				yield new Cycle(o[0], period);
+			}
+			case All all -> combineCycles(all.conditions().stream().map(this::solve).toList());
+			case Any any -> any.conditions()
+							   .stream()
+							   .map(this::solve)
+							   .reduce((a, b) -> a.offset() <= b.offset() ? a : b)
+							   .orElseThrow();
+		};
+	}
+
+}
@@ -0,0 +1,320 @@
+package de.knallisworld.aoc2023.day20;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Compiled pulse network.
+ * <p>
+ * Modules get int ids, connections are edges in CSR layout (the outgoing edges of module i are the edge ids
+ * outStart[i] until outStart[i + 1]). Flip-flop states live in a bitset; conjunctions remember the last pulse per
+ * incoming edge (again a bitset) and keep a counter of high inputs, so "all inputs high?" is a single compare.
+ * In-flight pulses are ints (edge id and high bit) in a primitive ring buffer.
+ * <p>
+ * Watches report which edges carried a specific pulse during a button press, see {@link #watch(int, boolean)}.
+ */
+class PulseSimulator {
+
+	static final String BROADCASTER = "broadcaster";
+
+	private final String[] names;
+	private final Map<String, Integer> ids;
+	private final Day20.Type[] types;
+	private final int broadcaster;
+
+	// edges sorted by source
+	private final int[] outStart;
+	private final int[] edgeSource;
+	private final int[] edgeTarget;
+	// incoming edge ids per module
+	private final int[] inStart;
+	private final int[] inEdges;
+
+	private final long[] flipFlops;
+	private final long[] memory;
+	private final int[] highInputs;
+	private final int[] inputCount;
+
+	private int[] queue;
+
+	private long lowPulses;
+	private long highPulses;
+
+	private int watches;
+	// watch slot per edge and pulse, -1 if not watched
+	private final int[] edgeWatchHigh;
+	private final int[] edgeWatchLow;
+	private final BitSet fired = new BitSet();
+
+	private PulseSimulator(final String[] names,
+						   final Day20.Type[] types,
+						   final int[] outStart,
+						   final int[] edgeSource,
+						   final int[] edgeTarget) {
+		this.names = names;
+		this.types = types;
+		this.outStart = outStart;
+		this.edgeSource = edgeSource;
+		this.edgeTarget = edgeTarget;
+		this.ids = new HashMap<>();
+		for (var i = 0; i < names.length; i++) {
+			ids.put(names[i], i);
+		}
+		this.broadcaster = requireNonNull(ids.get(BROADCASTER), "broadcaster module missing");
+
+		final var n = names.length;
+		final var edges = edgeSource.length;
+		this.inputCount = new int[n];
+		for (final var target : edgeTarget) {
+			inputCount[target]++;
+		}
+		this.inStart = new int[n + 1];
+		for (var i = 0; i < n; i++) {
+			inStart[i + 1] = inStart[i] + inputCount[i];
+		}
+		this.inEdges = new int[edges];
+		final var fill = Arrays.copyOf(inStart, n);
+		for (var e = 0; e < edges; e++) {
+			inEdges[fill[edgeTarget[e]]++] = e;
+		}
+
+		this.flipFlops = new long[(n + 63) >>> 6];
+		this.memory = new long[(edges + 63) >>> 6];
+		this.highInputs = new int[n];
+		// large enough for the first wave of the button press
+		this.queue = new int[Integer.highestOneBit(Math.max(edges, 128)) * 2];
+		this.edgeWatchHigh = new int[edges];
+		this.edgeWatchLow = new int[edges];
+		Arrays.fill(edgeWatchHigh, -1);
+		Arrays.fill(edgeWatchLow, -1);
+	}
+
+	static PulseSimulator compile(final Day20.Network network) {
+		// stable ids: broadcaster first, then by name
+		final var names = network.modules()
+								 .keySet()
+								 .stream()
+								 .sorted((a, b) -> BROADCASTER.equals(a) ? -1 : BROADCASTER.equals(b) ? 1 : a.compareTo(b))
+								 .toArray(String[]::new);
+		final var index = new HashMap<String, Integer>();
+		for (var i = 0; i < names.length; i++) {
+			index.put(names[i], i);
+		}
+		final var types = new Day20.Type[names.length];
+		for (var i = 0; i < names.length; i++) {
+			types[i] = network.modules().get(names[i]);
+		}
+
+		final var outgoing = new ArrayList<List<Integer>>();
+		for (var i = 0; i < names.length; i++) {
+			outgoing.add(new ArrayList<>());
+		}
+		for (final var connection : network.connections()) {
+			outgoing.get(id(index, connection.src())).add(id(index, connection.dst()));
+		}
+		final var outStart = new int[names.length + 1];
+		final var edgeSource = new int[network.connections().size()];
+		final var edgeTarget = new int[network.connections().size()];
+		var e = 0;
+		for (var i = 0; i < names.length; i++) {
+			outStart[i] = e;
+			for (final var target : outgoing.get(i)) {
+				edgeSource[e] = i;
+				edgeTarget[e] = target;
+				e++;
+			}
+		}
+		outStart[names.length] = e;
+		return new PulseSimulator(names, types, outStart, edgeSource, edgeTarget);
+	}
+
+	private static int id(final Map<String, Integer> index, final String name) {
+		return requireNonNull(index.get(name), "invalid module name: " + name);
+	}
+
+	int size() {
+		return names.length;
+	}
+
+	int id(final String name) {
+		return id(ids, name);
+	}
+
+	String name(final int id) {
+		return names[id];
+	}
+
+	Day20.Type type(final int id) {
+		return types[id];
+	}
+
+	int edgeCount() {
+		return edgeSource.length;
+	}
+
+	int source(final int edge) {
+		return edgeSource[edge];
+	}
+
+	int target(final int edge) {
+		return edgeTarget[edge];
+	}
+
+	/**
+	 * Ids of the outgoing edges
+	 */
+	int[] outgoing(final int module) {
+		return IntStream.range(outStart[module], outStart[module + 1]).toArray();
+	}
+
+	/**
+	 * Ids of the incoming edges
+	 */
+	int[] incoming(final int module) {
+		return Arrays.copyOfRange(inEdges, inStart[module], inStart[module + 1]);
+	}
+
+	long lowPulses() {
+		return lowPulses;
+	}
+
+	long highPulses() {
+		return highPulses;
+	}
+
+	/**
+	 * Registers a watch.
+	 *
+	 * @return the watch's bit in the set returned by {@link #press()}
+	 */
+	int watch(final int edge, final boolean high) {
+		final var slot = watches;
+		final var slots = high ? edgeWatchHigh : edgeWatchLow;
+		if (slots[edge] >= 0) {
+			throw new IllegalArgumentException("edge already watched");
+		}
+		slots[edge] = slot;
+		watches++;
+		return slot;
+	}
+
+	/**
+	 * Back to the initial state (all flip-flops off, all conjunction memories low, no pulses counted). Watches are
+	 * kept.
+	 */
+	void reset() {
+		Arrays.fill(flipFlops, 0);
+		Arrays.fill(memory, 0);
+		Arrays.fill(highInputs, 0);
+		lowPulses = 0;
+		highPulses = 0;
+	}
+
+	/**
+	 * Pushes the button once: a low pulse to the broadcaster, then until no pulse is in flight.
+	 *
+	 * @return the watches which fired during this press (reused, only valid until the next press)
+	 */
+	BitSet press() {
+		fired.clear();
+		var queue = this.queue;
+		var head = 0;
+		var tail = 0;
+		var mask = queue.length - 1;
+
+		// the button pulse itself
+		lowPulses++;
+		for (var e = outStart[broadcaster]; e < outStart[broadcaster + 1]; e++) {
+			queue[tail++ & mask] = e << 1;
+		}
+
+		while (head != tail) {
+			final var item = queue[head++ & mask];
+			final var edge = item >>> 1;
+			final var high = (item & 1) != 0;
+			if (high) {
+				highPulses++;
+				final var slot = edgeWatchHigh[edge];
+				if (slot >= 0) {
+					fired.set(slot);
+				}
+			} else {
+				lowPulses++;
+				final var slot = edgeWatchLow[edge];
+				if (slot >= 0) {
+					fired.set(slot);
+				}
+			}
+
+			final var module = edgeTarget[edge];
+			final int send;
+			switch (types[module]) {
+				case FLIP_FLOP -> {
+					if (high) {
+						continue;
+					}
+					final var word = module >>> 6;
+					final var bit = 1L << module;
+					flipFlops[word] ^= bit;
+					send = (flipFlops[word] & bit) != 0 ? 1 : 0;
+				}
+				case CONJUNCTION -> {
+					final var word = edge >>> 6;
+					final var bit = 1L << edge;
+					final var was = (memory[word] & bit) != 0;
+					if (was != high) {
+						memory[word] ^= bit;
+						highInputs[module] += high ? 1 : -1;
+					}
+					send = highInputs[module] == inputCount[module] ? 0 : 1;
+				}
+				case BROADCASTER -> send = high ? 1 : 0;
+				default -> {
+					continue;
+				}
+			}
+
+			final var from = outStart[module];
+			final var to = outStart[module + 1];
+			if (tail - head + (to - from) > queue.length) {
+				mask = grow(head, tail);
+				queue = this.queue;
+				tail -= head;
+				head = 0;
+			}
+			for (var e = from; e < to; e++) {
+				queue[tail++ & mask] = e << 1 | send;
+			}
+		}
+		return fired;
+	}
+
+	/**
+	 * Doubles the queue, moving the in-flight pulses to the front.
+	 *
+	 * @return the new index mask
+	 */
+	private int grow(final int head, final int tail) {
+		final var old = queue;
+		final var oldMask = old.length - 1;
+		final var size = tail - head;
+		var capacity = old.length * 2;
+		while (capacity < size + outStart[outStart.length - 1]) {
+			capacity *= 2;
+		}
+		final var grown = new int[capacity];
+		for (var i = 0; i < size; i++) {
+			grown[i] = old[(head + i) & oldMask];
+		}
+		queue = grown;
+		return capacity - 1;
+	}
+
+}
@@ -3,6 +3,7 @@ package de.knallisworld.aoc2023.day21;
 import de.knallisworld.aoc2023.support.geo.Point2D;
 import de.knallisworld.aoc2023.support.geo.grid2.FixGrid;
 import de.knallisworld.aoc2023.support.geo.grid2.InfiniteGrid;
+import de.knallisworld.aoc2023.support.math.Polynomials;
 import lombok.extern.log4j.Log4j2;
 
 import java.util.*;
@@ -128,12 +129,9 @@ public class Day21 {
 			cache.put(i, next.size() + (i > 1 ? cache.get(i - 2) : 0));
 		}
 
-		final var d2 = cache.get(r + 2 * n) + cache.get(r) - 2 * cache.get(r + n);
-		final var d1 = cache.get(r + 2 * n) - cache.get(r + n);
-
-		return "sum = %d".formatted(
-				cache.get(r + 2 * n) + (k - 2) * (2 * d1 + (k - 1) * d2) / 2
-		);
+		// the reachable count grows quadratically per grid repetition
+		final var samples = new long[]{cache.get(r), cache.get(r + n), cache.get(r + 2 * n)};
+		return "sum = %d".formatted(Polynomials.extrapolate(samples, k));
 	}
 
 }
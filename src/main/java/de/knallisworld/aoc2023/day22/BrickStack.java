@@ -0,0 +1,221 @@
+package de.knallisworld.aoc2023.day22;
+
+import de.knallisworld.aoc2023.day22.Day22.Box;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static java.util.Comparator.comparingInt;
+
+/**
+ * A settled stack of bricks including the support graph.
+ * <p>
+ * Bricks are identified by their index in {@link #bricks()}, which is a topological order of the support graph
+ * (a supporting brick always has a lower index than the bricks it supports).
+ */
+class BrickStack {
+
+	static final int GROUND = -1;
+
+	private final List<Box> bricks;
+	private final int[][] supports;
+	private final int[][] supportedBy;
+	private final int fallen;
+
+	private BrickStack(final List<Box> bricks,
+					   final int[][] supports,
+					   final int[][] supportedBy,
+					   final int fallen) {
+		this.bricks = bricks;
+		this.supports = supports;
+		this.supportedBy = supportedBy;
+		this.fallen = fallen;
+	}
+
+	/**
+	 * Lets all bricks fall down until they rest on the ground or on another brick.
+	 * <p>
+	 * The bricks are sorted once (by their lower z) and dropped in that order against a heightmap of the (x,y) plane.
+	 * The heightmap also tracks the top-most brick per column, which makes the support graph a by-product.
+	 */
+	static BrickStack settle(final Collection<Box> input) {
+		final var sorted = input.stream()
+								.sorted(comparingInt(Box::minZ))
+								.toList();
+		final var n = sorted.size();
+		final var width = sorted.stream().mapToInt(b -> b.to().x()).max().orElse(0) + 1;
+		final var depth = sorted.stream().mapToInt(b -> b.to().y()).max().orElse(0) + 1;
+
+		final var heights = new int[width * depth];
+		final var tops = new int[width * depth];
+		Arrays.fill(tops, GROUND);
+
+		final var settled = new Box[n];
+		final var supportedBy = new int[n][];
+		final var supportsCount = new int[n];
+		// last brick id which has seen the supporter (avoids duplicates without any set)
+		final var seen = new int[n];
+		Arrays.fill(seen, GROUND);
+		final var buffer = new int[n];
+		var fallen = 0;
+
+		for (var id = 0; id < n; id++) {
+			final var box = sorted.get(id);
+			var maxHeight = 0;
+			for (var y = box.from().y(); y <= box.to().y(); y++) {
+				for (var x = box.from().x(); x <= box.to().x(); x++) {
+					maxHeight = Math.max(maxHeight, heights[y * width + x]);
+				}
+			}
+
+			final var drop = box.minZ() - (maxHeight + 1);
+			if (drop > 0) {
+				fallen++;
+			}
+			final var moved = box.down(drop);
+			settled[id] = moved;
+
+			var supporters = 0;
+			for (var y = box.from().y(); y <= box.to().y(); y++) {
+				for (var x = box.from().x(); x <= box.to().x(); x++) {
+					final var i = y * width + x;
+					final var top = tops[i];
+					if (top != GROUND && heights[i] == maxHeight && seen[top] != id) {
+						seen[top] = id;
+						buffer[supporters++] = top;
+						supportsCount[top]++;
+					}
+					heights[i] = moved.maxZ();
+					tops[i] = id;
+				}
+			}
+			supportedBy[id] = Arrays.copyOf(buffer, supporters);
+		}
+
+		final var supports = new int[n][];
+		for (var id = 0; id < n; id++) {
+			supports[id] = new int[supportsCount[id]];
+			supportsCount[id] = 0;
+		}
+		for (var id = 0; id < n; id++) {
+			for (final var s : supportedBy[id]) {
+				supports[s][supportsCount[s]++] = id;
+			}
+		}
+
+		return new BrickStack(List.of(settled), supports, supportedBy, fallen);
+	}
+
+	List<Box> bricks() {
+		return bricks;
+	}
+
+	int[] supports(final int id) {
+		return supports[id];
+	}
+
+	int[] supportedBy(final int id) {
+		return supportedBy[id];
+	}
+
+	/**
+	 * Number of bricks which have fallen while settling.
+	 */
+	int fallen() {
+		return fallen;
+	}
+
+	/**
+	 * A brick can be disintegrated safely if every brick on top of it is supported by at least one other brick.
+	 */
+	boolean isDisintegrable(final int id) {
+		for (final var other : supports[id]) {
+			if (supportedBy[other].length == 1) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	long countDisintegrable() {
+		var count = 0L;
+		for (var id = 0; id < bricks.size(); id++) {
+			if (isDisintegrable(id)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * For each brick, the number of other bricks falling when this one is removed (chain reaction).
+	 * <p>
+	 * A brick falls iff every path from the ground to it runs through the removed one, i.e. the removed brick
+	 * dominates it. Therefore, the answer is the size of the brick's subtree in the dominator tree of the support
+	 * graph (rooted at the ground) minus itself. Thanks to the topological order, the immediate dominator of a
+	 * brick is the lowest common ancestor of all its supporters.
+	 */
+	int[] chainReactions() {
+		final var n = bricks.size();
+		final var root = n;
+		final var levels = Math.max(1, 32 - Integer.numberOfLeadingZeros(n + 1));
+		// up[k][v] = 2^k-th ancestor of v in the dominator tree
+		final var up = new int[levels][n + 1];
+		final var depth = new int[n + 1];
+		for (var k = 0; k < levels; k++) {
+			up[k][root] = root;
+		}
+
+		final var idom = new int[n];
+		for (var id = 0; id < n; id++) {
+			final var supporters = supportedBy[id];
+			var d = supporters.length == 0 ? root : supporters[0];
+			for (var i = 1; i < supporters.length && d != root; i++) {
+				d = lca(up, depth, d, supporters[i]);
+			}
+			idom[id] = d;
+			depth[id] = depth[d] + 1;
+			up[0][id] = d;
+			for (var k = 1; k < levels; k++) {
+				up[k][id] = up[k - 1][up[k - 1][id]];
+			}
+		}
+
+		final var sizes = new int[n];
+		for (var id = n - 1; id >= 0; id--) {
+			sizes[id]++;
+			if (idom[id] != root) {
+				sizes[idom[id]] += sizes[id];
+			}
+		}
+		for (var id = 0; id < n; id++) {
+			sizes[id]--;
+		}
+		return sizes;
+	}
+
+	private static int lca(final int[][] up, final int[] depth, int a, int b) {
+		if (depth[a] < depth[b]) {
+			final var t = a;
+			a = b;
+			b = t;
+		}
+		for (var k = up.length - 1; k >= 0; k--) {
+			if (depth[a] - (1 << k) >= depth[b]) {
+				a = up[k][a];
+			}
+		}
+		if (a == b) {
+			return a;
+		}
+		for (var k = up.length - 1; k >= 0; k--) {
+			if (up[k][a] != up[k][b]) {
+				a = up[k][a];
+				b = up[k][b];
+			}
+		}
+		return up[0][a];
+	}
+
+}
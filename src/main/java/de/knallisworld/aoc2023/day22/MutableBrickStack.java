@@ -0,0 +1,269 @@
+package de.knallisworld.aoc2023.day22;
+
+import de.knallisworld.aoc2023.day22.Day22.Box;
+import de.knallisworld.aoc2023.support.geo.Box3D;
+import de.knallisworld.aoc2023.support.geo.BoxIndex;
+import org.springframework.lang.Nullable;
+
+import java.util.*;
+
+import static java.util.Comparator.comparingInt;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A settled stack of bricks which can be changed (remove or drop in a brick) incrementally.
+ * <p>
+ * Only the bricks affected by a change are re-settled; the support graph and the set of safely disintegrable bricks
+ * are maintained along the way. Each change returns a {@link Delta} which can also be reverted, so "what if" questions
+ * are answered at the cost of the affected region instead of a full re-settle.
+ */
+class MutableBrickStack {
+
+	/**
+	 * A brick has been moved. If from is null, it was added; if to is null, it was removed.
+	 */
+	record Move(int id, @Nullable Box from, @Nullable Box to) {
+	}
+
+	record Delta(List<Move> moves,
+				 Set<Integer> disintegrableAdded,
+				 Set<Integer> disintegrableRemoved) {
+
+		/**
+		 * Number of bricks which have fallen (neither added nor removed).
+		 */
+		long fallen() {
+			return moves.stream()
+						.filter(m -> m.from() != null && m.to() != null)
+						.count();
+		}
+
+	}
+
+	private final Map<Integer, Box> bricks;
+	private final BoxIndex<Integer> index;
+	private final Map<Integer, Set<Integer>> supports;
+	private final Map<Integer, Set<Integer>> supportedBy;
+	private final Set<Integer> disintegrable;
+	private int nextId;
+
+	// state of the current change
+	private final Set<Integer> touched = new HashSet<>();
+
+	private MutableBrickStack() {
+		this.bricks = new HashMap<>();
+		this.index = BoxIndex.create();
+		this.supports = new HashMap<>();
+		this.supportedBy = new HashMap<>();
+		this.disintegrable = new HashSet<>();
+	}
+
+	static MutableBrickStack of(final BrickStack stack) {
+		final var result = new MutableBrickStack();
+		final var list = stack.bricks();
+		for (var id = 0; id < list.size(); id++) {
+			final var box = list.get(id);
+			result.bricks.put(id, box);
+			result.index.add(id, box.bounds());
+			result.supports.put(id, toSet(stack.supports(id)));
+			result.supportedBy.put(id, toSet(stack.supportedBy(id)));
+		}
+		for (var id = 0; id < list.size(); id++) {
+			if (stack.isDisintegrable(id)) {
+				result.disintegrable.add(id);
+			}
+		}
+		result.nextId = list.size();
+		return result;
+	}
+
+	private static Set<Integer> toSet(final int[] ids) {
+		final var result = new HashSet<Integer>(ids.length * 2);
+		for (final var id : ids) {
+			result.add(id);
+		}
+		return result;
+	}
+
+	Optional<Box> getBrick(final int id) {
+		return Optional.ofNullable(bricks.get(id));
+	}
+
+	Set<Integer> supports(final int id) {
+		return Collections.unmodifiableSet(requireNonNull(supports.get(id)));
+	}
+
+	Set<Integer> supportedBy(final int id) {
+		return Collections.unmodifiableSet(requireNonNull(supportedBy.get(id)));
+	}
+
+	Set<Integer> disintegrable() {
+		return Collections.unmodifiableSet(disintegrable);
+	}
+
+	int size() {
+		return bricks.size();
+	}
+
+	/**
+	 * Removes the brick; every brick losing its last support falls (recursively upwards).
+	 */
+	Delta remove(final int id) {
+		final var box = bricks.get(id);
+		if (box == null) {
+			throw new NoSuchElementException("unknown brick %d".formatted(id));
+		}
+		final var moves = new ArrayList<Move>();
+		final var candidates = new PriorityQueue<Integer>(comparingInt(c -> bricks.get(c).minZ()));
+		final var above = List.copyOf(supports.get(id));
+		unplace(id);
+		bricks.remove(id);
+		moves.add(new Move(id, box, null));
+		addFallCandidates(above, candidates);
+
+		while (!candidates.isEmpty()) {
+			final var c = candidates.poll();
+			if (!isFalling(c)) {
+				continue;
+			}
+			final var from = bricks.get(c);
+			final var cAbove = List.copyOf(supports.get(c));
+			unplace(c);
+			final var to = drop(from);
+			place(c, to);
+			moves.add(new Move(c, from, to));
+			addFallCandidates(cAbove, candidates);
+		}
+
+		return finish(moves);
+	}
+
+	/**
+	 * Drops in a new brick, which falls until resting. The brick must not overlap any other one.
+	 *
+	 * @return the change, the new brick's id is the one of the single move
+	 */
+	Delta add(final Box box) {
+		if (!index.overlapping(box.bounds()).isEmpty()) {
+			throw new IllegalArgumentException("brick %s overlaps".formatted(box));
+		}
+		final var id = nextId++;
+		final var to = drop(box);
+		place(id, to);
+		return finish(List.of(new Move(id, null, to)));
+	}
+
+	/**
+	 * Reverts the given delta, which must be the latest change applied.
+	 */
+	Delta revert(final Delta delta) {
+		final var moves = new ArrayList<Move>();
+		for (final var move : delta.moves().reversed()) {
+			if (move.to() != null) {
+				unplace(move.id());
+			}
+			if (move.from() != null) {
+				place(move.id(), move.from());
+			} else {
+				bricks.remove(move.id());
+			}
+			moves.add(new Move(move.id(), move.to(), move.from()));
+		}
+		return finish(moves);
+	}
+
+	private void addFallCandidates(final Collection<Integer> ids, final Queue<Integer> candidates) {
+		ids.stream()
+		   .filter(this::isFalling)
+		   .forEach(candidates::add);
+	}
+
+	private boolean isFalling(final int id) {
+		return bricks.get(id).minZ() > 1 && supportedBy.get(id).isEmpty();
+	}
+
+	/**
+	 * Finds the resting position below the box (stepping down in growing chunks, so the costs depend on the
+	 * falling distance and not on the bricks beneath).
+	 */
+	private Box drop(final Box box) {
+		final var bounds = box.bounds();
+		var z = box.minZ() - 1;
+		var step = 4;
+		while (z >= 1) {
+			final var lo = Math.max(1, z - step + 1);
+			final var hits = index.overlapping(new Box3D(bounds.minX(), bounds.minY(), lo, bounds.maxX(), bounds.maxY(), z));
+			if (!hits.isEmpty()) {
+				final var rest = hits.stream()
+									 .mapToInt(h -> bricks.get(h).maxZ())
+									 .max()
+									 .orElseThrow() + 1;
+				return box.down(box.minZ() - rest);
+			}
+			z = lo - 1;
+			step *= 2;
+		}
+		return box.down(box.minZ() - 1);
+	}
+
+	private void place(final int id, final Box box) {
+		bricks.put(id, box);
+		index.add(id, box.bounds());
+		final var below = new HashSet<>(index.below(box.bounds()));
+		final var above = new HashSet<>(index.onTopOf(box.bounds()));
+		below.forEach(b -> supports.get(b).add(id));
+		above.forEach(a -> supportedBy.get(a).add(id));
+		supportedBy.put(id, below);
+		supports.put(id, above);
+		touch(id);
+	}
+
+	private void unplace(final int id) {
+		touch(id);
+		index.remove(id);
+		supportedBy.remove(id).forEach(b -> supports.get(b).remove(id));
+		supports.remove(id).forEach(a -> supportedBy.get(a).remove(id));
+	}
+
+	/**
+	 * Collects all bricks whose disintegrable state may change by (un)placing the given one: itself, its supporters,
+	 * and every supporter of the bricks on top of it.
+	 */
+	private void touch(final int id) {
+		touched.add(id);
+		touched.addAll(supportedBy.getOrDefault(id, Set.of()));
+		supports.getOrDefault(id, Set.of())
+				.forEach(a -> touched.addAll(supportedBy.get(a)));
+	}
+
+	private boolean isDisintegrable(final int id) {
+		for (final var other : supports.get(id)) {
+			if (supportedBy.get(other).size() == 1) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private Delta finish(final List<Move> moves) {
+		final var added = new HashSet<Integer>();
+		final var removed = new HashSet<Integer>();
+		for (final var id : touched) {
+			final var before = disintegrable.contains(id);
+			final var after = bricks.containsKey(id) && supports.containsKey(id) && isDisintegrable(id);
+			if (after) {
+				disintegrable.add(id);
+			} else {
+				disintegrable.remove(id);
+			}
+			if (after && !before) {
+				added.add(id);
+			} else if (!after && before) {
+				removed.add(id);
+			}
+		}
+		touched.clear();
+		return new Delta(List.copyOf(moves), Set.copyOf(added), Set.copyOf(removed));
+	}
+
+}
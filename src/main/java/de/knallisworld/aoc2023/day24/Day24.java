@@ -1,15 +1,15 @@
 package de.knallisworld.aoc2023.day24;
 
-import com.microsoft.z3.Context;
-import com.microsoft.z3.RatNum;
-import com.microsoft.z3.Status;
+import de.knallisworld.aoc2023.support.math.Fraction;
+import de.knallisworld.aoc2023.support.math.LinearSystems;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.geometry.euclidean.threed.Vector3D;
 import org.apache.commons.geometry.euclidean.twod.Lines;
 import org.apache.commons.geometry.euclidean.twod.Vector2D;
 import org.apache.commons.numbers.core.Precision;
 
-import java.util.ArrayList;
+import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
@@ -59,14 +59,12 @@ public class Day24 {
 	}
 
 	static <T> Stream<Pair<T>> forEachPair(final Collection<T> collection) {
+		// lazy, the pairs are never materialized as a whole
 		final var l = List.copyOf(collection);
-		final var result = new ArrayList<Pair<T>>();
-		for (var i = 0; i < collection.size(); i++) {
-			for (var j = i + 1; j < collection.size(); j++) {
-				result.add(new Pair<>(l.get(i), l.get(j)));
-			}
-		}
-		return result.stream();
+		return IntStream.range(0, l.size())
+						.boxed()
+						.flatMap(i -> IntStream.range(i + 1, l.size())
+											   .mapToObj(j -> new Pair<>(l.get(i), l.get(j))));
 	}
 
 	static List<Vector2D> getXYCrossings(final List<Line3D> lines, final Vector2D min, final Vector2D max) {
@@ -147,64 +145,124 @@ public class Day24 {
 	}
 
 	static String part1(final List<Line3D> lines, double min, double max) {
-		// TODO actual getXYCrossings wont work for real input, only for demo
-		final var crossings = getXYCrossings2(lines, Vector2D.of(min, min), Vector2D.of(max, max));
-		return "crossings = %d".formatted(crossings.size());
+		// getXYCrossings wont work for real input (precision), getXYCrossings2 is the double based reference
+		final var crossings = HailstoneKernel.of(lines).countXYCrossings(min, max);
+		return "crossings = %d".formatted(crossings);
 	}
 
 	static String part2(final List<Line3D> lines, double min, double max) {
+		// previously solved with z3; the system is linear, though, so it can be solved exactly without any native solver
+		final var rock = findRock(lines);
+		final var solution = Arrays.stream(rock.pos())
+								   .reduce(BigInteger.ZERO, BigInteger::add);
+		return "solution = %d".formatted(solution);
+	}
+
+	record Rock(BigInteger[] pos, BigInteger[] vector) {
+	}
 
-		// well, TIL: z3
-		// https://github.com/eagely/adventofcode/blob/main/src/main/kotlin/solutions/y2023/Day24.kt
-		// install or download the native part via https://github.com/Z3Prover/z3/releases
-		// you may have to jump through some security check loops...
-		// for the next time this helps a lot solving linear systems
-
-		try (final var ctx = new Context()) {
-			final var solver = ctx.mkSolver();
-			final var mx = ctx.mkRealConst("mx");
-			final var my = ctx.mkRealConst("m");
-			final var mz = ctx.mkRealConst("mz");
-			final var mxv = ctx.mkRealConst("mxv");
-			final var mv = ctx.mkRealConst("mv");
-			final var mzv = ctx.mkRealConst("mzv");
-			// if the hit for the first 3 is found, it must align with the rest
-			IntStream.range(0, 3).forEach(i -> {
-				final var line = lines.get(i);
-				final var sx = line.pos.getX();
-				final var sy = line.pos.getY();
-				final var sz = line.pos.getZ();
-				final var sxv = line.vector.getX();
-				final var syv = line.vector.getY();
-				final var szv = line.vector.getZ();
-				// each line/hail will probably hit with a different t, so use t0, t1, t2
-				final var t = ctx.mkRealConst(STR."t\{i}");
-				// build for each of dimensions (x, y, z).
-				// the searching point is (mx,my,mz) with a vector (mxv,myv,mzv)
-				// there is a t which fits for
-				// 1   $mx + ( $mxv * t ) == sx + ( sxv * t )
-				// 2   $my + ( $myv * t ) == sy + ( syv * t )
-				// 3   $mz + ( $mzv * t ) == sz + ( szv * t )
-				solver.add(ctx.mkEq(ctx.mkAdd(mx, ctx.mkMul(mxv, t)), ctx.mkAdd(ctx.mkReal((long) sx), ctx.mkMul(ctx.mkReal((long) sxv), t))));
-				solver.add(ctx.mkEq(ctx.mkAdd(my, ctx.mkMul(mv, t)), ctx.mkAdd(ctx.mkReal((long) sy), ctx.mkMul(ctx.mkReal((long) syv), t))));
-				solver.add(ctx.mkEq(ctx.mkAdd(mz, ctx.mkMul(mzv, t)), ctx.mkAdd(ctx.mkReal((long) sz), ctx.mkMul(ctx.mkReal((long) szv), t))));
-			});
-			if (solver.check() != Status.SATISFIABLE) {
-				throw new IllegalStateException("invalid solver state: " + solver.check());
+	/**
+	 * The rock (P, V) hits every hailstone (p, v), so P + t * V == p + t * v for some t, i.e. (P - p) and (V - v) are
+	 * parallel: (P - p) x (V - v) == 0. Expanded: P x V - P x v - p x V + p x v == 0.
+	 * <p>
+	 * The only non-linear term P x V is the same for every hailstone, subtracting the equations of two hailstones i and
+	 * j cancels it out: P x (v_j - v_i) + (p_j - p_i) x V == p_j x v_j - p_i x v_i. Two such pairs give six linear
+	 * equations for the six unknowns.
+	 */
+	static Rock findRock(final List<Line3D> lines) {
+		final var n = lines.size();
+		for (var j = 1; j < n; j++) {
+			for (var k = j + 1; k < n; k++) {
+				final var a = new Fraction[6][];
+				final var b = new Fraction[6];
+				addRockEquations(lines.get(0), lines.get(j), a, b, 0);
+				addRockEquations(lines.get(0), lines.get(k), a, b, 3);
+				final var solution = LinearSystems.solve(a, b);
+				if (solution.isEmpty() || !Arrays.stream(solution.get()).allMatch(Fraction::isInteger)) {
+					// degenerated choice of hailstones, try the next ones
+					continue;
+				}
+				final var x = Arrays.stream(solution.get())
+									.map(Fraction::toBigIntegerExact)
+									.toArray(BigInteger[]::new);
+				final var rock = new Rock(Arrays.copyOfRange(x, 0, 3), Arrays.copyOfRange(x, 3, 6));
+				if (lines.parallelStream().allMatch(line -> hits(rock, line))) {
+					return rock;
+				}
 			}
-			final var model = solver.getModel();
-			final var solution = Stream
-					.of(mx, my, mz)
-					.mapToLong(it -> {
-						final var eval = model.eval(it, false);
-						if (eval instanceof RatNum rn) {
-							return rn.getNumerator().getInt64();
-						}
-						throw new IllegalStateException();
-					})
-					.sum();
-			return "solution = %d".formatted(solution);
 		}
+		throw new IllegalStateException("no rock trajectory found");
+	}
+
+	private static void addRockEquations(final Line3D li,
+										 final Line3D lj,
+										 final Fraction[][] a,
+										 final Fraction[] b,
+										 final int offset) {
+		final var pi = toBigIntegers(li.pos());
+		final var vi = toBigIntegers(li.vector());
+		final var pj = toBigIntegers(lj.pos());
+		final var vj = toBigIntegers(lj.vector());
+		final var w = subtract(vj, vi);
+		final var u = subtract(pj, pi);
+		final var c = subtract(cross(pj, vj), cross(pi, vi));
+		final var z = BigInteger.ZERO;
+		// coefficients for (Px, Py, Pz, Vx, Vy, Vz) of P x w + u x V
+		a[offset] = fractions(z, w[2], w[1].negate(), z, u[2].negate(), u[1]);
+		a[offset + 1] = fractions(w[2].negate(), z, w[0], u[2], z, u[0].negate());
+		a[offset + 2] = fractions(w[1], w[0].negate(), z, u[1].negate(), u[0], z);
+		b[offset] = Fraction.of(c[0]);
+		b[offset + 1] = Fraction.of(c[1]);
+		b[offset + 2] = Fraction.of(c[2]);
+	}
+
+	/**
+	 * Whether P + t * V == p + t * v on all axes for one whole t >= 0. With V == v, that requires P == p.
+	 */
+	static boolean hits(final Rock rock, final Line3D line) {
+		final var p = toBigIntegers(line.pos());
+		final var v = toBigIntegers(line.vector());
+		// t * (V - v) == p - P
+		final var dp = subtract(p, rock.pos());
+		final var dv = subtract(rock.vector(), v);
+		final var axis = IntStream.range(0, 3)
+								  .filter(i -> dv[i].signum() != 0)
+								  .findFirst();
+		if (axis.isEmpty()) {
+			return Arrays.stream(dp).allMatch(i -> i.signum() == 0);
+		}
+		final var division = dp[axis.getAsInt()].divideAndRemainder(dv[axis.getAsInt()]);
+		final var t = division[0];
+		if (division[1].signum() != 0 || t.signum() < 0) {
+			return false;
+		}
+		return IntStream.range(0, 3)
+						.allMatch(i -> rock.pos()[i].add(t.multiply(rock.vector()[i]))
+													.equals(p[i].add(t.multiply(v[i]))));
+	}
+
+	private static BigInteger[] toBigIntegers(final Vector3D v) {
+		return new BigInteger[]{
+				BigInteger.valueOf((long) v.getX()),
+				BigInteger.valueOf((long) v.getY()),
+				BigInteger.valueOf((long) v.getZ())
+		};
+	}
+
+	private static BigInteger[] subtract(final BigInteger[] a, final BigInteger[] b) {
+		return new BigInteger[]{a[0].subtract(b[0]), a[1].subtract(b[1]), a[2].subtract(b[2])};
+	}
+
+	private static BigInteger[] cross(final BigInteger[] a, final BigInteger[] b) {
+		return new BigInteger[]{
+				a[1].multiply(b[2]).subtract(a[2].multiply(b[1])),
+				a[2].multiply(b[0]).subtract(a[0].multiply(b[2])),
+				a[0].multiply(b[1]).subtract(a[1].multiply(b[0]))
+		};
+	}
+
+	private static Fraction[] fractions(final BigInteger... values) {
+		return Arrays.stream(values).map(Fraction::of).toArray(Fraction[]::new);
 	}
 
 }
@@ -0,0 +1,175 @@
+package de.knallisworld.aoc2023.day24;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import static java.lang.Math.multiplyHigh;
+
+/**
+ * Pairwise XY crossing test of hailstones, kept in primitive arrays (structure of arrays).
+ * <p>
+ * The pairs (i &lt; j) are processed in square tiles of the pair matrix, which keeps both operand blocks in cache;
+ * the tiles are spread over a fork-join pool. No pair objects are created at all.
+ * <p>
+ * The parallel and in-the-past checks are exact (128-bit products), only the final in-area check uses doubles.
+ * Positions must fit in 62 bits and velocities in 31 bits.
+ */
+class HailstoneKernel {
+
+	static final int TILE = 256;
+
+	/**
+	 * Number of tiles processed by a single task without splitting further.
+	 */
+	static final int TILES_PER_TASK = 4;
+
+	private final long[] px;
+	private final long[] py;
+	private final long[] vx;
+	private final long[] vy;
+	private final int n;
+	private final int blocks;
+
+	HailstoneKernel(final long[] px, final long[] py, final long[] vx, final long[] vy) {
+		this.px = px;
+		this.py = py;
+		this.vx = vx;
+		this.vy = vy;
+		this.n = px.length;
+		this.blocks = (n + TILE - 1) / TILE;
+	}
+
+	static HailstoneKernel of(final List<Day24.Line3D> lines) {
+		final var n = lines.size();
+		final var px = new long[n];
+		final var py = new long[n];
+		final var vx = new long[n];
+		final var vy = new long[n];
+		for (var i = 0; i < n; i++) {
+			final var line = lines.get(i);
+			px[i] = (long) line.pos().getX();
+			py[i] = (long) line.pos().getY();
+			vx[i] = (long) line.vector().getX();
+			vy[i] = (long) line.vector().getY();
+		}
+		return new HailstoneKernel(px, py, vx, vy);
+	}
+
+	/**
+	 * Counts the pairs whose future paths cross within [min, max] (for both x and y).
+	 */
+	long countXYCrossings(final double min, final double max) {
+		final var tiles = (long) blocks * (blocks + 1) / 2;
+		return ForkJoinPool.commonPool().invoke(new TileTask(0, tiles, min, max));
+	}
+
+	private class TileTask extends RecursiveTask<Long> {
+
+		private final long from;
+		private final long to;
+		private final double min;
+		private final double max;
+
+		TileTask(final long from, final long to, final double min, final double max) {
+			this.from = from;
+			this.to = to;
+			this.min = min;
+			this.max = max;
+		}
+
+		@Override
+		protected Long compute() {
+			if (to - from <= TILES_PER_TASK) {
+				var count = 0L;
+				for (var t = from; t < to; t++) {
+					count += countTile(t, min, max);
+				}
+				return count;
+			}
+			final var mid = (from + to) >>> 1;
+			final var left = new TileTask(from, mid, min, max);
+			left.fork();
+			final var right = new TileTask(mid, to, min, max).compute();
+			return left.join() + right;
+		}
+
+	}
+
+	/**
+	 * Maps the linear tile index onto the upper triangle (bi &lt;= bj) of the block matrix.
+	 */
+	private long countTile(final long tile, final double min, final double max) {
+		var bi = 0;
+		var remaining = tile;
+		while (remaining >= blocks - bi) {
+			remaining -= blocks - bi;
+			bi++;
+		}
+		final var bj = bi + (int) remaining;
+
+		final var i0 = bi * TILE;
+		final var i1 = Math.min(i0 + TILE, n);
+		final var j0 = bj * TILE;
+		final var j1 = Math.min(j0 + TILE, n);
+
+		var count = 0L;
+		for (var i = i0; i < i1; i++) {
+			final var pxi = px[i];
+			final var pyi = py[i];
+			final var vxi = vx[i];
+			final var vyi = vy[i];
+			for (var j = Math.max(j0, i + 1); j < j1; j++) {
+				final var det = vxi * vy[j] - vyi * vx[j];
+				if (det == 0) {
+					// parallel
+					continue;
+				}
+				final var dx = px[j] - pxi;
+				final var dy = py[j] - pyi;
+				// p_i + t * v_i == p_j + s * v_j  =>  t = (dx * vy_j - dy * vx_j) / det, s = (dx * vy_i - dy * vx_i) / det
+				final var detSign = Long.signum(det);
+				if (crossSignum(dx, vy[j], dy, vx[j]) * detSign < 0) {
+					// in the past for i
+					continue;
+				}
+				if (crossSignum(dx, vyi, dy, vxi) * detSign < 0) {
+					// in the past for j
+					continue;
+				}
+				final var t = crossToDouble(dx, vy[j], dy, vx[j]) / det;
+				final var x = pxi + vxi * t;
+				final var y = pyi + vyi * t;
+				if (min <= x && x <= max && min <= y && y <= max) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Exact signum of a * b - c * d
+	 */
+	static int crossSignum(final long a, final long b, final long c, final long d) {
+		final var lo1 = a * b;
+		final var lo2 = c * d;
+		final var hi = multiplyHigh(a, b) - multiplyHigh(c, d) - (Long.compareUnsigned(lo1, lo2) < 0 ? 1 : 0);
+		if (hi != 0) {
+			return Long.signum(hi);
+		}
+		return lo1 == lo2 ? 0 : 1;
+	}
+
+	/**
+	 * a * b - c * d, computed exactly in 128 bits and rounded to double at the very end
+	 */
+	static double crossToDouble(final long a, final long b, final long c, final long d) {
+		final var lo1 = a * b;
+		final var lo2 = c * d;
+		final var lo = lo1 - lo2;
+		final var hi = multiplyHigh(a, b) - multiplyHigh(c, d) - (Long.compareUnsigned(lo1, lo2) < 0 ? 1 : 0);
+		return hi * 0x1p64 + ((lo >>> 1) * 2.0 + (lo & 1));
+	}
+
+}
@@ -0,0 +1,50 @@
+package de.knallisworld.aoc2023.support.geo;
+
+/**
+ * Axis-aligned integer box, all bounds inclusive.
+ */
+public record Box3D(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+
+	public Box3D {
+		if (minX > maxX || minY > maxY || minZ > maxZ) {
+			throw new IllegalArgumentException("invalid bounds");
+		}
+	}
+
+	public static Box3D of(final Point3D<Integer> from, final Point3D<Integer> to) {
+		return new Box3D(
+				Math.min(from.x(), to.x()),
+				Math.min(from.y(), to.y()),
+				Math.min(from.z(), to.z()),
+				Math.max(from.x(), to.x()),
+				Math.max(from.y(), to.y()),
+				Math.max(from.z(), to.z())
+		);
+	}
+
+	public boolean overlaps(final Box3D other) {
+		return minX <= other.maxX && other.minX <= maxX
+				&& minY <= other.maxY && other.minY <= maxY
+				&& minZ <= other.maxZ && other.minZ <= maxZ;
+	}
+
+	/**
+	 * The one cell thick layer directly above the top face.
+	 */
+	public Box3D aboveTop() {
+		return new Box3D(minX, minY, maxZ + 1, maxX, maxY, maxZ + 1);
+	}
+
+	/**
+	 * The one cell thick layer directly below the bottom face.
+	 */
+	public Box3D belowBottom() {
+		return new Box3D(minX, minY, minZ - 1, maxX, maxY, minZ - 1);
+	}
+
+	@Override
+	public String toString() {
+		return "(%d,%d,%d)~(%d,%d,%d)".formatted(minX, minY, minZ, maxX, maxY, maxZ);
+	}
+
+}
@@ -0,0 +1,151 @@
+package de.knallisworld.aoc2023.support.geo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongConsumer;
+
+import static java.lang.Math.floorDiv;
+import static java.lang.Math.max;
+
+/**
+ * Spatial index of axis-aligned integer boxes, backed by a uniform (hashed) voxel grid.
+ * <p>
+ * Each value is registered in every cell its box touches. A query only visits the cells touching the query region,
+ * so the cost depends on the region and the result, not on the number of indexed boxes.
+ * <p>
+ * Values must be unique (by equality).
+ *
+ * @param <T> value type
+ */
+public class BoxIndex<T> {
+
+	static final int DEFAULT_CELL_SIZE = 4;
+
+	record Entry<T>(T value, Box3D box) {
+	}
+
+	private final int cellSize;
+	private final Map<Long, List<Entry<T>>> cells;
+	private final Map<T, Box3D> boxes;
+
+	BoxIndex(final int cellSize) {
+		if (cellSize < 1) {
+			throw new IllegalArgumentException("cell size must be positive");
+		}
+		this.cellSize = cellSize;
+		this.cells = new HashMap<>();
+		this.boxes = new HashMap<>();
+	}
+
+	public static <T> BoxIndex<T> create() {
+		return new BoxIndex<>(DEFAULT_CELL_SIZE);
+	}
+
+	/**
+	 * @param cellSize edge length of a cell; should be in the range of typical box extents
+	 */
+	public static <T> BoxIndex<T> create(final int cellSize) {
+		return new BoxIndex<>(cellSize);
+	}
+
+	public void add(final T value, final Box3D box) {
+		if (boxes.putIfAbsent(value, box) != null) {
+			throw new IllegalArgumentException("value already indexed: %s".formatted(value));
+		}
+		final var entry = new Entry<>(value, box);
+		forEachCell(box, key -> cells.computeIfAbsent(key, _ -> new ArrayList<>(2)).add(entry));
+	}
+
+	public boolean remove(final T value) {
+		final var box = boxes.remove(value);
+		if (box == null) {
+			return false;
+		}
+		forEachCell(box, key -> {
+			final var list = cells.get(key);
+			list.removeIf(e -> e.value().equals(value));
+			if (list.isEmpty()) {
+				cells.remove(key);
+			}
+		});
+		return true;
+	}
+
+	public Optional<Box3D> getBox(final T value) {
+		return Optional.ofNullable(boxes.get(value));
+	}
+
+	public int size() {
+		return boxes.size();
+	}
+
+	/**
+	 * All values whose box overlaps the region.
+	 */
+	public List<T> overlapping(final Box3D region) {
+		final var result = new ArrayList<T>();
+		final var cx0 = floorDiv(region.minX(), cellSize);
+		final var cy0 = floorDiv(region.minY(), cellSize);
+		final var cz0 = floorDiv(region.minZ(), cellSize);
+		final var cx1 = floorDiv(region.maxX(), cellSize);
+		final var cy1 = floorDiv(region.maxY(), cellSize);
+		final var cz1 = floorDiv(region.maxZ(), cellSize);
+		for (var cz = cz0; cz <= cz1; cz++) {
+			for (var cy = cy0; cy <= cy1; cy++) {
+				for (var cx = cx0; cx <= cx1; cx++) {
+					final var list = cells.get(key(cx, cy, cz));
+					if (list == null) {
+						continue;
+					}
+					for (final var entry : list) {
+						final var box = entry.box();
+						if (!box.overlaps(region)) {
+							continue;
+						}
+						// a box spanning multiple cells is only reported by the cell holding the min corner
+						// of the intersection, so no deduplication set is required
+						if (cx == floorDiv(max(box.minX(), region.minX()), cellSize)
+								&& cy == floorDiv(max(box.minY(), region.minY()), cellSize)
+								&& cz == floorDiv(max(box.minZ(), region.minZ()), cellSize)) {
+							result.add(entry.value());
+						}
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * All values whose box rests directly on the top face of the given box.
+	 */
+	public List<T> onTopOf(final Box3D box) {
+		return overlapping(box.aboveTop());
+	}
+
+	/**
+	 * All values whose box lies directly below the bottom face of the given box.
+	 */
+	public List<T> below(final Box3D box) {
+		return overlapping(box.belowBottom());
+	}
+
+	private void forEachCell(final Box3D box, final LongConsumer consumer) {
+		for (var cz = floorDiv(box.minZ(), cellSize); cz <= floorDiv(box.maxZ(), cellSize); cz++) {
+			for (var cy = floorDiv(box.minY(), cellSize); cy <= floorDiv(box.maxY(), cellSize); cy++) {
+				for (var cx = floorDiv(box.minX(), cellSize); cx <= floorDiv(box.maxX(), cellSize); cx++) {
+					consumer.accept(key(cx, cy, cz));
+				}
+			}
+		}
+	}
+
+	private static long key(final int cx, final int cy, final int cz) {
+		// 21 bits per axis
+		return ((cx & 0x1FFFFFL) << 42) | ((cy & 0x1FFFFFL) << 21) | (cz & 0x1FFFFFL);
+	}
+
+}
@@ -0,0 +1,64 @@
+package de.knallisworld.aoc2023.support.geo;
+
+import java.util.Arrays;
+
+/**
+ * Sums of Manhattan distances over all unordered pairs of points, in O(n log n).
+ * <p>
+ * The axes are independent: each one is sorted on its own, then the i-th value contributes i * x[i] minus the sum of
+ * all values before it (a running prefix sum).
+ */
+public class ManhattanDistances {
+
+	/**
+	 * @param xs x coordinates (sorted in place)
+	 * @param ys y coordinates (sorted in place)
+	 * @throws ArithmeticException if the sum does not fit into a long
+	 */
+	public static long pairwiseSum(final long[] xs, final long[] ys) {
+		return pairwiseSum(xs, ys, 1);
+	}
+
+	/**
+	 * Like {@link #pairwiseSum(long[], long[])}, but every row and column between the points without any point is
+	 * expanded to the given scale (i.e. 2 doubles the empty ones).
+	 */
+	public static long pairwiseSum(final long[] xs, final long[] ys, final long scale) {
+		if (xs.length != ys.length) {
+			throw new IllegalArgumentException("invalid dimensions");
+		}
+		return Math.addExact(pairwiseSum(xs, scale), pairwiseSum(ys, scale));
+	}
+
+	/**
+	 * Sum of |a - b| over all unordered pairs of the values, after expanding all unused values between them to the
+	 * given scale.
+	 * <p>
+	 * Expansion is a coordinate compression: with the values sorted, a value moves by (scale - 1) times the number of
+	 * unused values below it, which is its distance to the minimum minus the number of distinct values passed.
+	 * Expanding keeps the order, so it is done in the same pass as the summing.
+	 *
+	 * @param values sorted in place
+	 * @throws ArithmeticException if the sum does not fit into a long
+	 */
+	public static long pairwiseSum(final long[] values, final long scale) {
+		if (scale < 1) {
+			throw new IllegalArgumentException("invalid scale: " + scale);
+		}
+		Arrays.parallelSort(values);
+		var sum = 0L;
+		var prefix = 0L;
+		var distinct = 0L;
+		for (var i = 0; i < values.length; i++) {
+			if (i == 0 || values[i] != values[i - 1]) {
+				distinct++;
+			}
+			final var empty = values[i] - values[0] - (distinct - 1);
+			final var expanded = Math.addExact(values[i], Math.multiplyExact(scale - 1, empty));
+			sum = Math.addExact(sum, Math.multiplyExact(expanded, (long) i) - prefix);
+			prefix = Math.addExact(prefix, expanded);
+		}
+		return sum;
+	}
+
+}
@@ -0,0 +1,116 @@
+package de.knallisworld.aoc2023.support.geo;
+
+import de.knallisworld.aoc2023.support.geo.grid2.Direction;
+
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+import static java.lang.Math.*;
+
+/**
+ * Accumulates a rectilinear lattice polygon given as steps (direction and length), i.e. a dig plan.
+ * <p>
+ * Only the current position and the running sums are kept, so any amount of steps can be streamed through.
+ * All arithmetic is overflow checked and will throw an {@link ArithmeticException} instead of silently wrapping.
+ */
+public class PolygonAccumulator {
+
+	private long x;
+	private long y;
+
+	/**
+	 * Twice the signed area (shoelace formula)
+	 */
+	private long sum;
+
+	private long boundary;
+
+	public static PolygonAccumulator create() {
+		return new PolygonAccumulator();
+	}
+
+	/**
+	 * Collector for a stream of steps. Supports parallel streams, partial walks are combined by translation.
+	 */
+	public static <T> Collector<T, PolygonAccumulator, PolygonAccumulator> collector(final Function<T, Direction> dirMapper,
+																					 final ToLongFunction<T> lengthMapper) {
+		return Collector.of(
+				PolygonAccumulator::new,
+				(acc, step) -> acc.add(dirMapper.apply(step), lengthMapper.applyAsLong(step)),
+				PolygonAccumulator::combine
+		);
+	}
+
+	public PolygonAccumulator add(final Direction dir, final long length) {
+		if (length < 0) {
+			throw new IllegalArgumentException("length must not be negative");
+		}
+		final var nx = addExact(x, multiplyExact(dir.offset().getX(), length));
+		final var ny = addExact(y, multiplyExact(dir.offset().getY(), length));
+		sum = addExact(sum, cross(x, y, nx, ny));
+		boundary = addExact(boundary, length);
+		x = nx;
+		y = ny;
+		return this;
+	}
+
+	/**
+	 * Appends the walk of other (which starts at the origin) at the current position of this.
+	 * <p>
+	 * Translating every vertex by o adds o × (end - start) to the shoelace sum.
+	 */
+	PolygonAccumulator combine(final PolygonAccumulator other) {
+		sum = addExact(addExact(sum, other.sum), cross(x, y, other.x, other.y));
+		boundary = addExact(boundary, other.boundary);
+		x = addExact(x, other.x);
+		y = addExact(y, other.y);
+		return this;
+	}
+
+	private static long cross(final long ax, final long ay, final long bx, final long by) {
+		return subtractExact(multiplyExact(ax, by), multiplyExact(ay, bx));
+	}
+
+	public boolean isClosed() {
+		return x == 0 && y == 0;
+	}
+
+	/**
+	 * Area of the polygon spanned by the lattice points (not the cells).
+	 */
+	public long area() {
+		requireClosed();
+		return abs(sum) / 2;
+	}
+
+	/**
+	 * Number of lattice points on the boundary.
+	 */
+	public long boundary() {
+		requireClosed();
+		return boundary;
+	}
+
+	/**
+	 * Number of lattice points strictly inside. Pick's theorem: A = i + b/2 - 1
+	 */
+	public long interior() {
+		requireClosed();
+		return abs(sum) / 2 - boundary / 2 + 1;
+	}
+
+	/**
+	 * Number of cells covered when each lattice point is a cell, i.e. interior and boundary (trench) together.
+	 */
+	public long covered() {
+		return addExact(interior(), boundary());
+	}
+
+	private void requireClosed() {
+		if (!isClosed()) {
+			throw new IllegalStateException("polygon is not closed, ends at (%d/%d)".formatted(x, y));
+		}
+	}
+
+}
@@ -0,0 +1,77 @@
+package de.knallisworld.aoc2023.support.geo;
+
+import de.knallisworld.aoc2023.support.geo.grid2.Direction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiPredicate;
+
+import static java.lang.Math.abs;
+
+public class Polygons {
+
+	/**
+	 * Walks a closed loop of connected cells (i.e. a pipe loop) starting at the given point.
+	 * <p>
+	 * Each cell of the loop must connect exactly two directions. The walk is linear in the loop's length,
+	 * no search and no path copies are involved.
+	 *
+	 * @param start     any cell of the loop
+	 * @param connected whether the cell connects to the given direction
+	 * @return all cells of the loop in walking order, starting with start (which is not repeated at the end)
+	 */
+	public static List<Point2D<Integer>> traceLoop(final Point2D<Integer> start,
+												   final BiPredicate<Point2D<Integer>, Direction> connected) {
+		var dir = findOutgoing(start, null, connected);
+		final var result = new ArrayList<Point2D<Integer>>();
+		result.add(start);
+		var p = start.add(dir.offset());
+		while (!p.equals(start)) {
+			result.add(p);
+			dir = findOutgoing(p, dir.flip(), connected);
+			p = p.add(dir.offset());
+		}
+		return result;
+	}
+
+	private static Direction findOutgoing(final Point2D<Integer> p,
+										  final Direction incoming,
+										  final BiPredicate<Point2D<Integer>, Direction> connected) {
+		for (final var dir : Direction.values()) {
+			if (dir == incoming || !connected.test(p, dir)) {
+				continue;
+			}
+			// the neighbour has to connect back, otherwise this is a dead end
+			if (connected.test(p.add(dir.offset()), dir.flip())) {
+				return dir;
+			}
+		}
+		throw new IllegalStateException("loop is broken at %s".formatted(p));
+	}
+
+	/**
+	 * Computes twice the area of the polygon (shoelace formula). Twice, so it is always an integer.
+	 *
+	 * @param vertices polygon vertices in walking order (closing edge is implicit)
+	 */
+	public static long shoelaceArea2(final List<Point2D<Integer>> vertices) {
+		var sum = 0L;
+		final var n = vertices.size();
+		for (var i = 0; i < n; i++) {
+			final var a = vertices.get(i);
+			final var b = vertices.get((i + 1) % n);
+			sum += a.getX().longValue() * b.getY() - a.getY().longValue() * b.getX();
+		}
+		return abs(sum);
+	}
+
+	/**
+	 * Counts the cells enclosed by a loop of cells, as returned by {@link #traceLoop(Point2D, BiPredicate)}.
+	 * <p>
+	 * Pick's theorem: A = i + b/2 - 1, with b being the loop's length (every loop cell is a lattice point).
+	 */
+	public static long countEnclosed(final List<Point2D<Integer>> loop) {
+		return (shoelaceArea2(loop) - loop.size() + 2) / 2;
+	}
+
+}
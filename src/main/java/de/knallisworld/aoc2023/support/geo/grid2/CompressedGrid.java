@@ -0,0 +1,238 @@
+package de.knallisworld.aoc2023.support.geo.grid2;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+/**
+ * A grid over huge sparse coordinates, keeping only the distinct "interesting" ones.
+ * <p>
+ * The sorted breakpoints of each axis cut it into spans: column i covers x in [xs[i], xs[i + 1]), its weight is the
+ * span's length (rows alike). The values live in a small dense {@link FixGrid} with one cell per column/row pair;
+ * areas and distances multiply by the weights, so they are measured in original units.
+ */
+public class CompressedGrid<T> {
+
+	private final long[] xs;
+	private final long[] ys;
+	private final FixGrid<T> cells;
+
+	private CompressedGrid(final Class<T> type, final long[] xs, final long[] ys) {
+		this.xs = xs;
+		this.ys = ys;
+		this.cells = FixGrid.create(type, ys.length - 1, xs.length - 1);
+	}
+
+	/**
+	 * @param xBreaks x breakpoints (any order, duplicates allowed), at least two distinct ones
+	 * @param yBreaks y breakpoints (any order, duplicates allowed), at least two distinct ones
+	 */
+	public static <T> CompressedGrid<T> create(final Class<T> type,
+											   final Collection<Long> xBreaks,
+											   final Collection<Long> yBreaks) {
+		return new CompressedGrid<>(type, axis(xBreaks), axis(yBreaks));
+	}
+
+	private static long[] axis(final Collection<Long> breaks) {
+		final var result = breaks.stream()
+								 .mapToLong(Long::longValue)
+								 .sorted()
+								 .distinct()
+								 .toArray();
+		if (result.length < 2) {
+			throw new IllegalArgumentException("at least two distinct breakpoints required");
+		}
+		return result;
+	}
+
+	public int getWidth() {
+		return xs.length - 1;
+	}
+
+	public int getHeight() {
+		return ys.length - 1;
+	}
+
+	/**
+	 * @return the original x where the column starts
+	 */
+	public long x(final int column) {
+		return xs[column];
+	}
+
+	/**
+	 * @return the original y where the row starts
+	 */
+	public long y(final int row) {
+		return ys[row];
+	}
+
+	public long columnWidth(final int column) {
+		return xs[column + 1] - xs[column];
+	}
+
+	public long rowHeight(final int row) {
+		return ys[row + 1] - ys[row];
+	}
+
+	/**
+	 * @return the column containing the original x
+	 */
+	public int column(final long x) {
+		return span(xs, x);
+	}
+
+	/**
+	 * @return the row containing the original y
+	 */
+	public int row(final long y) {
+		return span(ys, y);
+	}
+
+	private static int span(final long[] axis, final long value) {
+		if (value < axis[0] || value >= axis[axis.length - 1]) {
+			throw new IllegalArgumentException("out of bounds: " + value);
+		}
+		final var i = Arrays.binarySearch(axis, value);
+		return i >= 0 ? i : -i - 2;
+	}
+
+	/**
+	 * The dense grid of cells (column, row)
+	 */
+	public FixGrid<T> cells() {
+		return cells;
+	}
+
+	public void setValue(final int column, final int row, final T value) {
+		cells.setValue(column, row, value);
+	}
+
+	public Optional<T> getValue(final int column, final int row) {
+		return cells.getValue(column, row);
+	}
+
+	/**
+	 * Sets the value on the rectangle [x1, x2) x [y1, y2) in original coordinates; the bounds must be breakpoints.
+	 */
+	public void fill(final long x1, final long y1, final long x2, final long y2, final T value) {
+		final var fromColumn = breakpoint(xs, x1);
+		final var toColumn = breakpoint(xs, x2);
+		final var fromRow = breakpoint(ys, y1);
+		final var toRow = breakpoint(ys, y2);
+		for (var row = fromRow; row < toRow; row++) {
+			for (var column = fromColumn; column < toColumn; column++) {
+				cells.setValue(column, row, value);
+			}
+		}
+	}
+
+	private static int breakpoint(final long[] axis, final long value) {
+		final var i = Arrays.binarySearch(axis, value);
+		if (i < 0) {
+			throw new IllegalArgumentException("not a breakpoint: " + value);
+		}
+		return i;
+	}
+
+	public long cellArea(final int column, final int row) {
+		return Math.multiplyExact(columnWidth(column), rowHeight(row));
+	}
+
+	/**
+	 * @return the total area of the cells with a value matching the filter
+	 */
+	public long area(final Predicate<T> filter) {
+		var sum = 0L;
+		for (var row = 0; row < getHeight(); row++) {
+			for (var column = 0; column < getWidth(); column++) {
+				final var value = cells.getValue(column, row);
+				if (value.isPresent() && filter.test(value.get())) {
+					sum = Math.addExact(sum, cellArea(column, row));
+				}
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * Sets the value on all empty cells 4-connected to the start cell (which must be empty as well).
+	 *
+	 * @return the filled area
+	 */
+	public long floodFill(final int column, final int row, final T value) {
+		if (cells.hasValue(column, row)) {
+			throw new IllegalArgumentException("start cell is not empty");
+		}
+		final var width = getWidth();
+		final var height = getHeight();
+		var stack = new int[64];
+		var size = 0;
+		var area = 0L;
+		cells.setValue(column, row, value);
+		stack[size++] = row * width + column;
+		while (size > 0) {
+			final var index = stack[--size];
+			final var x = index % width;
+			final var y = index / width;
+			area = Math.addExact(area, cellArea(x, y));
+			for (final var dir : Direction.values()) {
+				final var nx = x + dir.offset().getX();
+				final var ny = y + dir.offset().getY();
+				if (nx < 0 || ny < 0 || nx >= width || ny >= height || cells.hasValue(nx, ny)) {
+					continue;
+				}
+				cells.setValue(nx, ny, value);
+				if (size == stack.length) {
+					stack = Arrays.copyOf(stack, size * 2);
+				}
+				stack[size++] = ny * width + nx;
+			}
+		}
+		return area;
+	}
+
+	/**
+	 * Shortest walking distances in original units from the start cell's origin to every cell's origin, moving
+	 * between 4-adjacent cells the walkable filter accepts (empty cells are passed as empty). Crossing a cell costs
+	 * its width resp. height.
+	 *
+	 * @return distances indexed [row][column], Long.MAX_VALUE if unreachable
+	 */
+	public long[][] distances(final int column, final int row, final Predicate<Optional<T>> walkable) {
+		final var width = getWidth();
+		final var height = getHeight();
+		final var result = new long[height][width];
+		for (final var line : result) {
+			Arrays.fill(line, Long.MAX_VALUE);
+		}
+		// entries: distance, cell index
+		final var queue = new PriorityQueue<long[]>((a, b) -> Long.compare(a[0], b[0]));
+		result[row][column] = 0;
+		queue.add(new long[]{0, (long) row * width + column});
+		while (!queue.isEmpty()) {
+			final var entry = queue.poll();
+			final var x = (int) (entry[1] % width);
+			final var y = (int) (entry[1] / width);
+			if (entry[0] > result[y][x]) {
+				continue;
+			}
+			for (final var dir : Direction.values()) {
+				final var nx = x + dir.offset().getX();
+				final var ny = y + dir.offset().getY();
+				if (nx < 0 || ny < 0 || nx >= width || ny >= height || !walkable.test(cells.getValue(nx, ny))) {
+					continue;
+				}
+				final var d = entry[0] + Math.abs(xs[nx] - xs[x]) + Math.abs(ys[ny] - ys[y]);
+				if (d < result[ny][nx]) {
+					result[ny][nx] = d;
+					queue.add(new long[]{d, (long) ny * width + nx});
+				}
+			}
+		}
+		return result;
+	}
+
+}
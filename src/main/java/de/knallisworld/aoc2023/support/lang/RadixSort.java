@@ -0,0 +1,79 @@
+package de.knallisworld.aoc2023.support.lang;
+
+import java.util.stream.IntStream;
+
+/**
+ * Stable LSD radix sort of longs by a bit range, 8 bits per pass.
+ * <p>
+ * Each pass splits the array into chunks: the chunks are counted in parallel, then the bucket offsets are laid out
+ * bucket-major/chunk-minor (which keeps it stable), then the chunks are scattered in parallel.
+ */
+public class RadixSort {
+
+	static final int RADIX_BITS = 8;
+
+	/**
+	 * Below this size, a single chunk (sequential) is used
+	 */
+	static final int PARALLEL_THRESHOLD = 1 << 16;
+
+	/**
+	 * Sorts by the (unsigned) value of bits [fromBit, toBit); other bits do not matter, equal keys keep their order.
+	 */
+	public static void sort(final long[] values, final int fromBit, final int toBit) {
+		if (fromBit < 0 || toBit > Long.SIZE || fromBit > toBit) {
+			throw new IllegalArgumentException("invalid bit range [%d, %d)".formatted(fromBit, toBit));
+		}
+		final var n = values.length;
+		final var chunks = n < PARALLEL_THRESHOLD
+				? 1
+				: Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() * 4, n / (PARALLEL_THRESHOLD / 4)));
+
+		var src = values;
+		var dst = new long[n];
+		for (var shift = fromBit; shift < toBit; shift += RADIX_BITS) {
+			pass(src, dst, shift, Math.min(RADIX_BITS, toBit - shift), chunks);
+			final var t = src;
+			src = dst;
+			dst = t;
+		}
+		if (src != values) {
+			System.arraycopy(src, 0, values, 0, n);
+		}
+	}
+
+	private static void pass(final long[] src, final long[] dst, final int shift, final int bits, final int chunks) {
+		final var n = src.length;
+		final var mask = (1 << bits) - 1;
+		final var offsets = new int[chunks][1 << bits];
+
+		IntStream.range(0, chunks).parallel().forEach(c -> {
+			final var counts = offsets[c];
+			for (int i = chunkStart(n, chunks, c), end = chunkStart(n, chunks, c + 1); i < end; i++) {
+				counts[(int) (src[i] >>> shift) & mask]++;
+			}
+		});
+
+		var sum = 0;
+		for (var b = 0; b <= mask; b++) {
+			for (var c = 0; c < chunks; c++) {
+				final var count = offsets[c][b];
+				offsets[c][b] = sum;
+				sum += count;
+			}
+		}
+
+		IntStream.range(0, chunks).parallel().forEach(c -> {
+			final var next = offsets[c];
+			for (int i = chunkStart(n, chunks, c), end = chunkStart(n, chunks, c + 1); i < end; i++) {
+				final var value = src[i];
+				dst[next[(int) (value >>> shift) & mask]++] = value;
+			}
+		});
+	}
+
+	private static int chunkStart(final int n, final int chunks, final int chunk) {
+		return (int) ((long) chunk * n / chunks);
+	}
+
+}
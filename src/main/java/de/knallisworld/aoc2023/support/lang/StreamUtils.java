@@ -1,11 +1,16 @@
 package de.knallisworld.aoc2023.support.lang;
 
-import java.util.Collections;
+import de.knallisworld.aoc2023.support.math.LongRangeSet;
+
+import java.util.*;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.LongConsumer;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class StreamUtils {
 
@@ -23,4 +28,238 @@ public class StreamUtils {
 		});
 	}
 
+	/**
+	 * Stream of all values of the given ranges (in order).
+	 * <p>
+	 * Unlike flatMap'ing {@link LongStream#range(long, long)}, the stream splits by element count, even inside a
+	 * single range, so a parallel stream spreads one huge range over all workers.
+	 *
+	 * @param ranges disjoint ranges
+	 */
+	public static LongStream longRanges(final Collection<LongRangeSet.Range> ranges) {
+		final var starts = new long[ranges.size()];
+		// offsets[i] = number of values before range i
+		final var offsets = new long[ranges.size() + 1];
+		var i = 0;
+		for (final var range : ranges) {
+			starts[i] = range.start();
+			offsets[i + 1] = Math.addExact(offsets[i], range.length());
+			i++;
+		}
+		return StreamSupport.longStream(new RangesSpliterator(starts, offsets, 0, offsets[i]), false);
+	}
+
+	static class RangesSpliterator implements Spliterator.OfLong {
+
+		/**
+		 * Splits below this size are not worth it
+		 */
+		static final long MIN_SPLIT_SIZE = 1 << 12;
+
+		private final long[] starts;
+		private final long[] offsets;
+		private long index;
+		private final long fence;
+		private int range;
+
+		RangesSpliterator(final long[] starts, final long[] offsets, final long index, final long fence) {
+			this.starts = starts;
+			this.offsets = offsets;
+			this.index = index;
+			this.fence = fence;
+			this.range = findRange(offsets, index);
+		}
+
+		private static int findRange(final long[] offsets, final long index) {
+			// last range with offsets[range] <= index (and not empty)
+			var lo = 0;
+			var hi = offsets.length - 2;
+			while (lo < hi) {
+				final var mid = (lo + hi + 1) >>> 1;
+				if (offsets[mid] <= index) {
+					lo = mid;
+				} else {
+					hi = mid - 1;
+				}
+			}
+			return lo;
+		}
+
+		@Override
+		public boolean tryAdvance(final LongConsumer action) {
+			if (index >= fence) {
+				return false;
+			}
+			while (offsets[range + 1] <= index) {
+				range++;
+			}
+			action.accept(starts[range] + (index - offsets[range]));
+			index++;
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(final LongConsumer action) {
+			while (index < fence) {
+				while (offsets[range + 1] <= index) {
+					range++;
+				}
+				final var end = Math.min(fence, offsets[range + 1]);
+				final var base = starts[range] - offsets[range];
+				for (var k = index; k < end; k++) {
+					action.accept(base + k);
+				}
+				index = end;
+			}
+		}
+
+		@Override
+		public Spliterator.OfLong trySplit() {
+			final var size = fence - index;
+			if (size < MIN_SPLIT_SIZE) {
+				return null;
+			}
+			final var mid = index + size / 2;
+			final var prefix = new RangesSpliterator(starts, offsets, index, mid);
+			index = mid;
+			range = findRange(offsets, index);
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return fence - index;
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL | DISTINCT;
+		}
+
+	}
+
+	/**
+	 * The k smallest values, ascending. Each stream partition keeps its own bounded heap (no shared state),
+	 * the heaps are merged at the end.
+	 */
+	public static long[] smallest(final LongStream stream, final int k) {
+		return stream.collect(() -> new BoundedLongHeap(k, false), BoundedLongHeap::offer, BoundedLongHeap::merge)
+					 .toSortedArray();
+	}
+
+	/**
+	 * The k largest values, descending. See {@link #smallest(LongStream, int)}.
+	 */
+	public static long[] largest(final LongStream stream, final int k) {
+		return stream.collect(() -> new BoundedLongHeap(k, true), BoundedLongHeap::offer, BoundedLongHeap::merge)
+					 .toSortedArray();
+	}
+
+	/**
+	 * The k smallest elements by the comparator (ascending), as a contention-free collector.
+	 */
+	public static <T> Collector<T, ?, List<T>> smallest(final int k, final Comparator<? super T> comparator) {
+		return Collector.<T, PriorityQueue<T>, List<T>>of(
+				() -> new PriorityQueue<>(k + 1, comparator.reversed()),
+				(heap, item) -> offerBounded(heap, item, k),
+				(a, b) -> {
+					b.forEach(item -> offerBounded(a, item, k));
+					return a;
+				},
+				heap -> heap.stream().sorted(comparator).toList()
+		);
+	}
+
+	private static <T> void offerBounded(final PriorityQueue<T> heap, final T item, final int k) {
+		heap.add(item);
+		if (heap.size() > k) {
+			heap.poll();
+		}
+	}
+
+	/**
+	 * Heap of primitive longs keeping the k best values; the root is the worst of them.
+	 */
+	static class BoundedLongHeap {
+
+		private final long[] heap;
+		private final boolean largest;
+		private int size;
+
+		BoundedLongHeap(final int k, final boolean largest) {
+			if (k < 1) {
+				throw new IllegalArgumentException("k must be positive");
+			}
+			this.heap = new long[k];
+			this.largest = largest;
+		}
+
+		/**
+		 * whether a is a worse candidate than b
+		 */
+		private boolean worse(final long a, final long b) {
+			return largest ? a < b : a > b;
+		}
+
+		void offer(final long value) {
+			if (size < heap.length) {
+				var i = size++;
+				heap[i] = value;
+				while (i > 0) {
+					final var parent = (i - 1) >>> 1;
+					if (!worse(heap[i], heap[parent])) {
+						break;
+					}
+					swap(i, parent);
+					i = parent;
+				}
+			} else if (worse(heap[0], value)) {
+				heap[0] = value;
+				var i = 0;
+				while (true) {
+					final var l = 2 * i + 1;
+					final var r = l + 1;
+					var worst = i;
+					if (l < size && worse(heap[l], heap[worst])) {
+						worst = l;
+					}
+					if (r < size && worse(heap[r], heap[worst])) {
+						worst = r;
+					}
+					if (worst == i) {
+						break;
+					}
+					swap(i, worst);
+					i = worst;
+				}
+			}
+		}
+
+		void merge(final BoundedLongHeap other) {
+			for (var i = 0; i < other.size; i++) {
+				offer(other.heap[i]);
+			}
+		}
+
+		long[] toSortedArray() {
+			final var result = Arrays.copyOf(heap, size);
+			Arrays.sort(result);
+			if (largest) {
+				for (var i = 0; i < size / 2; i++) {
+					final var t = result[i];
+					result[i] = result[size - 1 - i];
+					result[size - 1 - i] = t;
+				}
+			}
+			return result;
+		}
+
+		private void swap(final int a, final int b) {
+			final var t = heap[a];
+			heap[a] = heap[b];
+			heap[b] = t;
+		}
+
+	}
+
 }
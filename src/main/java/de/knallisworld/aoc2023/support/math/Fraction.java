@@ -0,0 +1,90 @@
+package de.knallisworld.aoc2023.support.math;
+
+import java.math.BigInteger;
+
+/**
+ * Exact rational number, always normalized (reduced, positive denominator).
+ */
+public record Fraction(BigInteger numerator, BigInteger denominator) implements Comparable<Fraction> {
+
+	public static final Fraction ZERO = new Fraction(BigInteger.ZERO, BigInteger.ONE);
+	public static final Fraction ONE = new Fraction(BigInteger.ONE, BigInteger.ONE);
+
+	public Fraction {
+		if (denominator.signum() == 0) {
+			throw new ArithmeticException("denominator is zero");
+		}
+		if (denominator.signum() < 0) {
+			numerator = numerator.negate();
+			denominator = denominator.negate();
+		}
+		final var gcd = numerator.gcd(denominator);
+		if (!gcd.equals(BigInteger.ONE) && gcd.signum() != 0) {
+			numerator = numerator.divide(gcd);
+			denominator = denominator.divide(gcd);
+		}
+	}
+
+	public static Fraction of(final long value) {
+		return new Fraction(BigInteger.valueOf(value), BigInteger.ONE);
+	}
+
+	public static Fraction of(final BigInteger value) {
+		return new Fraction(value, BigInteger.ONE);
+	}
+
+	public Fraction add(final Fraction other) {
+		return new Fraction(
+				numerator.multiply(other.denominator).add(other.numerator.multiply(denominator)),
+				denominator.multiply(other.denominator)
+		);
+	}
+
+	public Fraction subtract(final Fraction other) {
+		return add(other.negate());
+	}
+
+	public Fraction multiply(final Fraction other) {
+		return new Fraction(numerator.multiply(other.numerator), denominator.multiply(other.denominator));
+	}
+
+	public Fraction divide(final Fraction other) {
+		return new Fraction(numerator.multiply(other.denominator), denominator.multiply(other.numerator));
+	}
+
+	public Fraction negate() {
+		return new Fraction(numerator.negate(), denominator);
+	}
+
+	public int signum() {
+		return numerator.signum();
+	}
+
+	public boolean isInteger() {
+		return denominator.equals(BigInteger.ONE);
+	}
+
+	/**
+	 * @throws ArithmeticException if not an integer
+	 */
+	public BigInteger toBigIntegerExact() {
+		if (!isInteger()) {
+			throw new ArithmeticException("not an integer: %s".formatted(this));
+		}
+		return numerator;
+	}
+
+	@Override
+	public int compareTo(final Fraction other) {
+		return numerator.multiply(other.denominator).compareTo(other.numerator.multiply(denominator));
+	}
+
+	@Override
+	public String toString() {
+		if (isInteger()) {
+			return numerator.toString();
+		}
+		return "%s/%s".formatted(numerator, denominator);
+	}
+
+}
@@ -0,0 +1,73 @@
+package de.knallisworld.aoc2023.support.math;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+public class LinearSystems {
+
+	/**
+	 * Solves the square system A * x = b exactly (Gaussian elimination over fractions).
+	 *
+	 * @param a coefficients, a[row][column]
+	 * @param b right hand side
+	 * @return the unique solution, or empty if the system is singular
+	 */
+	public static Optional<Fraction[]> solve(final Fraction[][] a, final Fraction[] b) {
+		final var n = b.length;
+		if (a.length != n) {
+			throw new IllegalArgumentException("invalid dimensions");
+		}
+
+		// augmented working copy [A | b]
+		final var m = new Fraction[n][n + 1];
+		for (var row = 0; row < n; row++) {
+			if (a[row].length != n) {
+				throw new IllegalArgumentException("invalid dimensions");
+			}
+			System.arraycopy(a[row], 0, m[row], 0, n);
+			m[row][n] = b[row];
+		}
+
+		for (var col = 0; col < n; col++) {
+			// any non-zero pivot will do, the arithmetic is exact
+			var pivot = col;
+			while (pivot < n && m[pivot][col].signum() == 0) {
+				pivot++;
+			}
+			if (pivot == n) {
+				return Optional.empty();
+			}
+			final var temp = m[pivot];
+			m[pivot] = m[col];
+			m[col] = temp;
+
+			for (var row = 0; row < n; row++) {
+				if (row == col || m[row][col].signum() == 0) {
+					continue;
+				}
+				final var factor = m[row][col].divide(m[col][col]);
+				for (var k = col; k <= n; k++) {
+					m[row][k] = m[row][k].subtract(factor.multiply(m[col][k]));
+				}
+			}
+		}
+
+		final var result = new Fraction[n];
+		for (var row = 0; row < n; row++) {
+			result[row] = m[row][n].divide(m[row][row]);
+		}
+		return Optional.of(result);
+	}
+
+	/**
+	 * Convenience variant for integer coefficients.
+	 */
+	public static Optional<Fraction[]> solve(final long[][] a, final long[] b) {
+		final var fa = Arrays.stream(a)
+							 .map(row -> Arrays.stream(row).mapToObj(Fraction::of).toArray(Fraction[]::new))
+							 .toArray(Fraction[][]::new);
+		final var fb = Arrays.stream(b).mapToObj(Fraction::of).toArray(Fraction[]::new);
+		return solve(fa, fb);
+	}
+
+}
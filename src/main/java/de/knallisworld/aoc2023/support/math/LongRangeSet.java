@@ -0,0 +1,205 @@
+package de.knallisworld.aoc2023.support.math;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import static java.util.Comparator.comparingLong;
+
+/**
+ * Immutable set of longs, represented by sorted, disjoint and coalesced half-open ranges.
+ * <p>
+ * The whole point: operations work on ranges, never on single elements, so sets of 10^12 elements are as cheap as
+ * sets of ten.
+ */
+public class LongRangeSet {
+
+	/**
+	 * Half-open range [start, end)
+	 */
+	public record Range(long start, long end) {
+
+		public Range {
+			if (start > end) {
+				throw new IllegalArgumentException("invalid range [%d, %d)".formatted(start, end));
+			}
+		}
+
+		public static Range ofLength(final long start, final long length) {
+			return new Range(start, Math.addExact(start, length));
+		}
+
+		public long length() {
+			return end - start;
+		}
+
+		public boolean isEmpty() {
+			return start == end;
+		}
+
+		public boolean contains(final long value) {
+			return start <= value && value < end;
+		}
+
+	}
+
+	/**
+	 * Moves all values of [start, end) by offset. Values not covered by any shift are kept as-is.
+	 */
+	public record Shift(long start, long end, long offset) {
+
+		public Shift {
+			if (start > end) {
+				throw new IllegalArgumentException("invalid shift [%d, %d)".formatted(start, end));
+			}
+		}
+
+	}
+
+	static final Comparator<Range> BY_START = comparingLong(Range::start);
+
+	private static final LongRangeSet EMPTY = new LongRangeSet(List.of());
+
+	private final List<Range> ranges;
+
+	private LongRangeSet(final List<Range> ranges) {
+		this.ranges = ranges;
+	}
+
+	public static LongRangeSet empty() {
+		return EMPTY;
+	}
+
+	public static LongRangeSet of(final Collection<Range> ranges) {
+		return new LongRangeSet(normalize(new ArrayList<>(ranges)));
+	}
+
+	/**
+	 * Sorts and coalesces (overlapping or adjacent) ranges, drops empty ones.
+	 */
+	static List<Range> normalize(final List<Range> ranges) {
+		ranges.removeIf(Range::isEmpty);
+		ranges.sort(BY_START);
+		final var result = new ArrayList<Range>(ranges.size());
+		for (final var range : ranges) {
+			if (!result.isEmpty() && result.getLast().end() >= range.start()) {
+				final var last = result.removeLast();
+				result.add(new Range(last.start(), Math.max(last.end(), range.end())));
+			} else {
+				result.add(range);
+			}
+		}
+		return List.copyOf(result);
+	}
+
+	public List<Range> ranges() {
+		return ranges;
+	}
+
+	public boolean isEmpty() {
+		return ranges.isEmpty();
+	}
+
+	/**
+	 * Number of values; throws an {@link ArithmeticException} on overflow.
+	 */
+	public long size() {
+		var sum = 0L;
+		for (final var range : ranges) {
+			sum = Math.addExact(sum, range.length());
+		}
+		return sum;
+	}
+
+	public long min() {
+		if (ranges.isEmpty()) {
+			throw new IllegalStateException("empty");
+		}
+		return ranges.getFirst().start();
+	}
+
+	public long max() {
+		if (ranges.isEmpty()) {
+			throw new IllegalStateException("empty");
+		}
+		return ranges.getLast().end() - 1;
+	}
+
+	public boolean contains(final long value) {
+		var lo = 0;
+		var hi = ranges.size() - 1;
+		while (lo <= hi) {
+			final var mid = (lo + hi) >>> 1;
+			final var range = ranges.get(mid);
+			if (value < range.start()) {
+				hi = mid - 1;
+			} else if (value >= range.end()) {
+				lo = mid + 1;
+			} else {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Applies the shifts (a piecewise translation) to the whole set. Ranges are split at the shift boundaries.
+	 *
+	 * @param shifts disjoint shifts, in any order
+	 */
+	public LongRangeSet shift(final Collection<Shift> shifts) {
+		final var sorted = new ArrayList<>(shifts);
+		sorted.sort(comparingLong(Shift::start));
+		for (var i = 1; i < sorted.size(); i++) {
+			if (sorted.get(i - 1).end() > sorted.get(i).start()) {
+				throw new IllegalArgumentException("shifts must not overlap");
+			}
+		}
+
+		final var result = new ArrayList<Range>();
+		for (final var range : ranges) {
+			var pos = range.start();
+			// first shift which could be relevant (ends behind the range's start)
+			var i = firstEndingAfter(sorted, pos);
+			while (pos < range.end()) {
+				if (i == sorted.size() || sorted.get(i).start() >= range.end()) {
+					// no more shifts: the rest is kept as-is
+					result.add(new Range(pos, range.end()));
+					break;
+				}
+				final var shift = sorted.get(i);
+				if (pos < shift.start()) {
+					// gap before the shift
+					result.add(new Range(pos, shift.start()));
+					pos = shift.start();
+				}
+				final var end = Math.min(range.end(), shift.end());
+				result.add(new Range(Math.addExact(pos, shift.offset()), Math.addExact(end, shift.offset())));
+				pos = end;
+				i++;
+			}
+		}
+		return new LongRangeSet(normalize(result));
+	}
+
+	private static int firstEndingAfter(final List<Shift> sorted, final long value) {
+		var lo = 0;
+		var hi = sorted.size();
+		while (lo < hi) {
+			final var mid = (lo + hi) >>> 1;
+			if (sorted.get(mid).end() <= value) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	@Override
+	public String toString() {
+		return ranges.toString();
+	}
+
+}
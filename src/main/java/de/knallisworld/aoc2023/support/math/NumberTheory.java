@@ -0,0 +1,123 @@
+package de.knallisworld.aoc2023.support.math;
+
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Optional;
+
+public class NumberTheory {
+
+	/**
+	 * The values offset + k * period for all k >= 0
+	 */
+	public record Cycle(long offset, long period) {
+
+		public Cycle {
+			if (period <= 0) {
+				throw new IllegalArgumentException("period must be positive");
+			}
+		}
+
+	}
+
+	public static long gcd(final long a, final long b) {
+		var x = Math.abs(a);
+		var y = Math.abs(b);
+		while (y != 0) {
+			final var t = x % y;
+			x = y;
+			y = t;
+		}
+		return x;
+	}
+
+	/**
+	 * @throws ArithmeticException on overflow, see {@link #lcmExact(long...)}
+	 */
+	public static long lcm(final long a, final long b) {
+		if (a == 0 || b == 0) {
+			return 0;
+		}
+		return Math.multiplyExact(Math.abs(a) / gcd(a, b), Math.abs(b));
+	}
+
+	/**
+	 * LCM of all values; stays in long arithmetic as long as possible.
+	 */
+	public static BigInteger lcmExact(final long... values) {
+		var result = 1L;
+		for (var i = 0; i < values.length; i++) {
+			try {
+				result = lcm(result, values[i]);
+			} catch (final ArithmeticException e) {
+				var big = BigInteger.valueOf(result);
+				for (var j = i; j < values.length; j++) {
+					big = lcm(big, BigInteger.valueOf(values[j]));
+				}
+				return big;
+			}
+		}
+		return BigInteger.valueOf(result);
+	}
+
+	public static BigInteger lcm(final BigInteger a, final BigInteger b) {
+		if (a.signum() == 0 || b.signum() == 0) {
+			return BigInteger.ZERO;
+		}
+		return a.divide(a.gcd(b)).multiply(b).abs();
+	}
+
+	/**
+	 * Solves x = a.offset (mod a.period) and x = b.offset (mod b.period); the periods need not be coprime.
+	 *
+	 * @return the solution as cycle with offset in [0, lcm), or empty if there is none
+	 * @throws ArithmeticException if the lcm does not fit into a long
+	 */
+	public static Optional<Cycle> crt(final Cycle a, final Cycle b) {
+		final var p1 = BigInteger.valueOf(a.period());
+		final var p2 = BigInteger.valueOf(b.period());
+		final var g = p1.gcd(p2);
+		final var diff = BigInteger.valueOf(b.offset()).subtract(BigInteger.valueOf(a.offset()));
+		if (diff.mod(g).signum() != 0) {
+			return Optional.empty();
+		}
+		final var lcm = p1.divide(g).multiply(p2);
+		// a.offset + p1 * k = b.offset (mod p2)  =>  k = diff / g * inverse(p1 / g) (mod p2 / g)
+		final var m = p2.divide(g);
+		final var k = m.equals(BigInteger.ONE)
+				? BigInteger.ZERO
+				: diff.divide(g).multiply(p1.divide(g).modInverse(m)).mod(m);
+		final var x = BigInteger.valueOf(a.offset()).add(p1.multiply(k)).mod(lcm);
+		return Optional.of(new Cycle(x.longValueExact(), lcm.longValueExact()));
+	}
+
+	/**
+	 * The values all cycles have in common: unlike {@link #crt(Cycle, Cycle)}, the resulting offset is the first
+	 * common value not before any of the offsets (a cycle starts at its offset).
+	 *
+	 * @throws IllegalArgumentException if the cycles never meet
+	 */
+	public static Cycle combineCycles(final Collection<Cycle> cycles) {
+		if (cycles.isEmpty()) {
+			throw new IllegalArgumentException("no cycles");
+		}
+		Cycle result = null;
+		for (final var cycle : cycles) {
+			if (result == null) {
+				result = cycle;
+				continue;
+			}
+			final var previous = result;
+			final var common = crt(previous, cycle)
+					.orElseThrow(() -> new IllegalArgumentException("cycles never meet: %s, %s".formatted(previous, cycle)));
+			final var min = Math.max(previous.offset(), cycle.offset());
+			var offset = common.offset();
+			if (offset < min) {
+				// ceil((min - offset) / period) periods later
+				offset = Math.addExact(offset, Math.multiplyExact(Math.ceilDiv(min - offset, common.period()), common.period()));
+			}
+			result = new Cycle(offset, common.period());
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,141 @@
+package de.knallisworld.aoc2023.support.math;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+
+import static java.util.Comparator.comparingLong;
+
+/**
+ * A piecewise translation of longs: x -> x + offset(x), offset being constant between breakpoints.
+ * <p>
+ * Stored as sorted breakpoints with their offsets (the first breakpoint is always {@link Long#MIN_VALUE}, so every
+ * value is covered). A lookup is a single binary search, and chains of translations can be composed into one.
+ */
+public class PiecewiseShift {
+
+	private static final PiecewiseShift IDENTITY = new PiecewiseShift(new long[]{Long.MIN_VALUE}, new long[]{0});
+
+	private final long[] starts;
+	private final long[] offsets;
+
+	private PiecewiseShift(final long[] starts, final long[] offsets) {
+		this.starts = starts;
+		this.offsets = offsets;
+	}
+
+	public static PiecewiseShift identity() {
+		return IDENTITY;
+	}
+
+	/**
+	 * @param shifts disjoint shifts; values not covered stay as-is
+	 */
+	public static PiecewiseShift of(final Collection<LongRangeSet.Shift> shifts) {
+		final var sorted = new ArrayList<>(shifts);
+		sorted.sort(comparingLong(LongRangeSet.Shift::start));
+		final var builder = new Builder(sorted.size() * 2 + 1);
+		builder.add(Long.MIN_VALUE, 0);
+		var last = Long.MIN_VALUE;
+		for (final var shift : sorted) {
+			if (shift.start() < last) {
+				throw new IllegalArgumentException("shifts must not overlap");
+			}
+			builder.add(shift.start(), shift.offset());
+			builder.add(shift.end(), 0);
+			last = shift.end();
+		}
+		return builder.build();
+	}
+
+	public long apply(final long value) {
+		return value + offsets[indexOf(value)];
+	}
+
+	/**
+	 * Number of breakpoints (pieces)
+	 */
+	public int size() {
+		return starts.length;
+	}
+
+	/**
+	 * Composes this with the next translation, the result equals next.apply(this.apply(x)).
+	 */
+	public PiecewiseShift andThen(final PiecewiseShift next) {
+		final var builder = new Builder(starts.length + next.starts.length);
+		for (var k = 0; k < starts.length; k++) {
+			final var start = starts[k];
+			final var offset = offsets[k];
+			final var hasEnd = k + 1 < starts.length;
+			// the image of this piece in next's domain; the first piece starts at "minus infinity"
+			final var imageStart = k == 0 ? Long.MIN_VALUE : start + offset;
+			var m = next.indexOf(imageStart);
+			builder.add(start, offset + next.offsets[m]);
+			// every breakpoint of next within the image splits the piece
+			for (m++; m < next.starts.length; m++) {
+				final var breakpoint = next.starts[m];
+				if (hasEnd && breakpoint >= starts[k + 1] + offset) {
+					break;
+				}
+				builder.add(breakpoint - offset, offset + next.offsets[m]);
+			}
+		}
+		return builder.build();
+	}
+
+	private int indexOf(final long value) {
+		// last start <= value
+		final var i = Arrays.binarySearch(starts, value);
+		return i >= 0 ? i : -i - 2;
+	}
+
+	@Override
+	public String toString() {
+		final var sb = new StringBuilder();
+		for (var i = 0; i < starts.length; i++) {
+			sb.append("[%d: %+d]".formatted(starts[i], offsets[i]));
+		}
+		return sb.toString();
+	}
+
+	private static class Builder {
+
+		private long[] starts;
+		private long[] offsets;
+		private int size;
+
+		Builder(final int capacity) {
+			this.starts = new long[Math.max(1, capacity)];
+			this.offsets = new long[Math.max(1, capacity)];
+		}
+
+		void add(final long start, final long offset) {
+			if (size > 0 && starts[size - 1] == start) {
+				// an empty piece, the latter wins
+				offsets[size - 1] = offset;
+				if (size > 1 && offsets[size - 2] == offset) {
+					size--;
+				}
+				return;
+			}
+			if (size > 0 && offsets[size - 1] == offset) {
+				// same offset, just a continuation
+				return;
+			}
+			if (size == starts.length) {
+				starts = Arrays.copyOf(starts, size * 2);
+				offsets = Arrays.copyOf(offsets, size * 2);
+			}
+			starts[size] = start;
+			offsets[size] = offset;
+			size++;
+		}
+
+		PiecewiseShift build() {
+			return new PiecewiseShift(Arrays.copyOf(starts, size), Arrays.copyOf(offsets, size));
+		}
+
+	}
+
+}
@@ -0,0 +1,189 @@
+package de.knallisworld.aoc2023.support.math;
+
+import java.math.BigInteger;
+
+/**
+ * Extrapolation of polynomial series y(0), y(1), .. y(n-1) by Newton's forward differences.
+ * <p>
+ * The values are turned into the coefficients d[k] = Δ^k y(0) in place; then y(x) = sum of C(x, k) * d[k] for any
+ * (also negative or far away) x, where C(x, k) = x * (x - 1) * .. * (x - k + 1) / k! is the generalized binomial
+ * coefficient.
+ * <p>
+ * The differences are computed with plain (wrapping) long arithmetic: the formula is a ring identity, so everything
+ * stays correct modulo 2^64 and the coefficients are exact as long as they fit into a long.
+ */
+public class Polynomials {
+
+	/**
+	 * Replaces the values by their forward differences Δ^k y(0) (in place).
+	 *
+	 * @return the degree of the interpolating polynomial, -1 if all values are zero
+	 */
+	public static int differences(final long[] values) {
+		final var n = values.length;
+		for (var k = 1; k < n; k++) {
+			var any = 0L;
+			for (var i = n - 1; i >= k; i--) {
+				values[i] -= values[i - 1];
+				any |= values[i];
+			}
+			if (any == 0) {
+				// all higher differences are zero as well
+				return degree(values, k);
+			}
+		}
+		return degree(values, n);
+	}
+
+	private static int degree(final long[] coefficients, final int limit) {
+		for (var k = limit - 1; k >= 0; k--) {
+			if (coefficients[k] != 0) {
+				return k;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Evaluates the Newton polynomial at x.
+	 *
+	 * @param coefficients see {@link #differences(long[])}
+	 * @throws ArithmeticException if the result does not fit into a long
+	 */
+	public static long evaluate(final long[] coefficients, final int degree, final long x) {
+		try {
+			var result = 0L;
+			var binomial = 1L;
+			for (var k = 0; k <= degree; k++) {
+				if (k > 0) {
+					binomial = Math.multiplyExact(binomial, x - k + 1) / k;
+				}
+				result = Math.addExact(result, Math.multiplyExact(binomial, coefficients[k]));
+			}
+			return result;
+		} catch (final ArithmeticException e) {
+			// intermediate values may overflow although the result does not
+			return evaluateExact(coefficients, degree, BigInteger.valueOf(x)).longValueExact();
+		}
+	}
+
+	public static BigInteger evaluateExact(final long[] coefficients, final int degree, final BigInteger x) {
+		var result = BigInteger.ZERO;
+		var binomial = BigInteger.ONE;
+		for (var k = 0; k <= degree; k++) {
+			if (k > 0) {
+				binomial = binomial.multiply(x.subtract(BigInteger.valueOf(k - 1)))
+								   .divide(BigInteger.valueOf(k));
+			}
+			result = result.add(binomial.multiply(BigInteger.valueOf(coefficients[k])));
+		}
+		return result;
+	}
+
+	/**
+	 * The value at index x of the series (x = values.length is the next one, -1 the previous one). Overwrites the
+	 * values, see {@link #differences(long[])}.
+	 *
+	 * @throws ArithmeticException if the result does not fit into a long
+	 */
+	public static long extrapolate(final long[] values, final long x) {
+		return evaluate(values, differences(values), x);
+	}
+
+	/**
+	 * Like {@link #extrapolate(long[], long)}, for results beyond long.
+	 */
+	public static BigInteger extrapolateExact(final long[] values, final BigInteger x) {
+		return evaluateExact(values, differences(values), x);
+	}
+
+	/**
+	 * Extrapolates many series of the same length at once. The values are interleaved: the i-th value of series s is
+	 * at values[i * series + s]. All inner loops run over contiguous series, so they vectorize.
+	 * <p>
+	 * Overwrites the values. The results are computed modulo 2^64 while tracking overflows per series; a series whose
+	 * differences or terms overflowed is evaluated again exactly.
+	 *
+	 * @return the value at index x of each series
+	 * @throws ArithmeticException if a result does not fit into a long
+	 */
+	public static long[] extrapolate(final long[] values, final int series, final long x) {
+		if (series <= 0 || values.length % series != 0) {
+			throw new IllegalArgumentException("invalid series count: " + series);
+		}
+		final var n = values.length / series;
+		final var original = values.clone();
+		// per series: non-zero once anything overflowed
+		final var overflows = new long[series];
+		for (var k = 1; k < n; k++) {
+			for (var i = n - 1; i >= k; i--) {
+				final var to = i * series;
+				final var from = to - series;
+				for (var s = 0; s < series; s++) {
+					final var a = values[to + s];
+					final var b = values[from + s];
+					final var r = a - b;
+					overflows[s] |= ((a ^ b) & (a ^ r)) >>> 63;
+					values[to + s] = r;
+				}
+			}
+		}
+
+		final var result = new long[series];
+		var binomial = BigInteger.ONE;
+		for (var k = 0; k < n; k++) {
+			if (k > 0) {
+				binomial = binomial.multiply(BigInteger.valueOf(x).subtract(BigInteger.valueOf(k - 1)))
+								   .divide(BigInteger.valueOf(k));
+			}
+			final var offset = k * series;
+			if (binomial.bitLength() >= Long.SIZE) {
+				// every non-zero coefficient gives a term beyond long
+				for (var s = 0; s < series; s++) {
+					overflows[s] |= values[offset + s];
+				}
+				continue;
+			}
+			final var factor = binomial.longValue();
+			for (var s = 0; s < series; s++) {
+				final var coefficient = values[offset + s];
+				final var term = factor * coefficient;
+				final var sum = result[s] + term;
+				overflows[s] |= Math.multiplyHigh(factor, coefficient) ^ (term >> 63);
+				overflows[s] |= ((result[s] ^ sum) & (term ^ sum)) >>> 63;
+				result[s] = sum;
+			}
+		}
+
+		for (var s = 0; s < series; s++) {
+			if (overflows[s] != 0) {
+				result[s] = extrapolateExact(original, series, s, BigInteger.valueOf(x)).longValueExact();
+			}
+		}
+		return result;
+	}
+
+	private static BigInteger extrapolateExact(final long[] values, final int series, final int s, final BigInteger x) {
+		final var n = values.length / series;
+		final var coefficients = new BigInteger[n];
+		for (var i = 0; i < n; i++) {
+			coefficients[i] = BigInteger.valueOf(values[i * series + s]);
+		}
+		for (var k = 1; k < n; k++) {
+			for (var i = n - 1; i >= k; i--) {
+				coefficients[i] = coefficients[i].subtract(coefficients[i - 1]);
+			}
+		}
+		var result = BigInteger.ZERO;
+		var binomial = BigInteger.ONE;
+		for (var k = 0; k < n; k++) {
+			if (k > 0) {
+				binomial = binomial.multiply(x.subtract(BigInteger.valueOf(k - 1)))
+								   .divide(BigInteger.valueOf(k));
+			}
+			result = result.add(binomial.multiply(coefficients[k]));
+		}
+		return result;
+	}
+
+}
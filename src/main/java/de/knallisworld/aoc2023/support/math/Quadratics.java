@@ -0,0 +1,76 @@
+package de.knallisworld.aoc2023.support.math;
+
+import java.math.BigInteger;
+
+public class Quadratics {
+
+	/**
+	 * @return floor(sqrt(value))
+	 */
+	public static long isqrt(final long value) {
+		if (value < 0) {
+			throw new IllegalArgumentException("negative value: " + value);
+		}
+		// the double estimate is off by a few at most; correct it in exact arithmetic
+		var root = (long) Math.sqrt((double) value);
+		while (root > 0 && exceeds(root, root, value)) {
+			root--;
+		}
+		while (!exceeds(root + 1, root + 1, value)) {
+			root++;
+		}
+		return root;
+	}
+
+	/**
+	 * @return floor(sqrt(value))
+	 */
+	public static BigInteger isqrt(final BigInteger value) {
+		if (value.signum() < 0) {
+			throw new IllegalArgumentException("negative value: " + value);
+		}
+		return value.sqrt();
+	}
+
+	/**
+	 * Number of integers t in [0, total] with t * (total - t) > threshold, in constant time.
+	 * <p>
+	 * The product is symmetric around total / 2, so the matching t form the range [lo, total - lo]. lo is estimated by
+	 * the smaller root of t^2 - total * t + threshold = 0 and then corrected by exact comparisons (the products may
+	 * exceed a long, the discriminant is computed as BigInteger).
+	 */
+	public static long countProductAbove(final long total, final long threshold) {
+		if (total < 0) {
+			throw new IllegalArgumentException("negative total: " + total);
+		}
+		if (threshold < 0) {
+			// even t = 0 matches
+			return total + 1;
+		}
+		final var half = total / 2;
+		if (!exceeds(half, total - half, threshold)) {
+			return 0;
+		}
+		final var discriminant = BigInteger.valueOf(total)
+										   .pow(2)
+										   .subtract(BigInteger.valueOf(threshold).shiftLeft(2));
+		// disc > 0 here, as the maximum product exceeds the threshold
+		final var root = isqrt(discriminant).longValueExact();
+		var lo = Math.max(0, (total - root) / 2);
+		while (lo > 0 && exceeds(lo - 1, total - lo + 1, threshold)) {
+			lo--;
+		}
+		while (!exceeds(lo, total - lo, threshold)) {
+			lo++;
+		}
+		return total - 2 * lo + 1;
+	}
+
+	/**
+	 * @return a * b > limit, for non-negative values, without overflow
+	 */
+	private static boolean exceeds(final long a, final long b, final long limit) {
+		return Math.multiplyHigh(a, b) != 0 || Long.compareUnsigned(a * b, limit) > 0;
+	}
+
+}
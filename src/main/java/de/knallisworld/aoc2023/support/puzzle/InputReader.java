@@ -62,6 +62,14 @@ public class InputReader {
 		}
 	}
 
+	@SneakyThrows
+	public static byte[] readInputBytes(final int day,
+										final String name) {
+		try (final var in = buildInputStream(day, name)) {
+			return in.readAllBytes();
+		}
+	}
+
 	static String buildResourcePath(final int day, final String name) {
 		return "day%02d/%s.txt".formatted(day, name);
 	}
@@ -0,0 +1,55 @@
+package de.knallisworld.aoc2023.day04;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static de.knallisworld.aoc2023.support.puzzle.InputReader.readInputBytes;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScratchcardEngineTest {
+
+	@Test
+	void testExample() {
+		final var counts = ScratchcardEngine.winCounts(readInputBytes(4, "part0"));
+		assertThat(counts)
+				.containsExactly(4, 2, 2, 1, 0, 0);
+		assertThat(ScratchcardEngine.points(counts))
+				.isEqualTo(13);
+		assertThat(ScratchcardEngine.totalCards(counts))
+				.isEqualTo(30);
+	}
+
+	@Test
+	void largeNumbersAndLineBreaks() {
+		final var data = "Card 1: 64 99  1 | 99  1 64 127\r\nCard 2: 127 | 63\r\n\r\nCard 3: 5 | 5"
+				.getBytes(StandardCharsets.US_ASCII);
+		assertThat(ScratchcardEngine.winCounts(data))
+				.containsExactly(3, 0, 1);
+	}
+
+	@Test
+	void streamingMatchesBytes() {
+		final var data = readInputBytes(4, "part1");
+		// tiny, irregular reads: tokens are split across buffers
+		final var in = new InputStream() {
+			final ByteArrayInputStream delegate = new ByteArrayInputStream(data);
+			int calls;
+
+			@Override
+			public int read() {
+				return delegate.read();
+			}
+
+			@Override
+			public int read(final byte[] b, final int off, final int len) {
+				return delegate.read(b, off, Math.min(len, 1 + calls++ % 7));
+			}
+		};
+		assertThat(ScratchcardEngine.winCounts(in))
+				.containsExactly(ScratchcardEngine.winCounts(data));
+	}
+
+}
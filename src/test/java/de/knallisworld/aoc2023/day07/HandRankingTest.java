@@ -0,0 +1,56 @@
+package de.knallisworld.aoc2023.day07;
+
+import org.junit.jupiter.api.Test;
+
+import static de.knallisworld.aoc2023.day07.Day07.parseInput;
+import static de.knallisworld.aoc2023.day07.Day07.part1;
+import static de.knallisworld.aoc2023.day07.Day07.part2;
+import static de.knallisworld.aoc2023.support.puzzle.InputReader.readInputLines;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HandRankingTest {
+
+	@Test
+	void testExample() {
+		assertThat(part1(parseInput(readInputLines(7, "part0"))))
+				.isEqualTo("hands = 5, winnings = 6440");
+		assertThat(part2(parseInput(readInputLines(7, "part0"))))
+				.isEqualTo("hands = 5, winnings = 5905");
+	}
+
+	@Test
+	void types() {
+		assertThat(type("AAAAA", false)).isEqualTo(7);
+		assertThat(type("AA8AA", false)).isEqualTo(6);
+		assertThat(type("23332", false)).isEqualTo(5);
+		assertThat(type("TTT98", false)).isEqualTo(4);
+		assertThat(type("23432", false)).isEqualTo(3);
+		assertThat(type("A23A4", false)).isEqualTo(2);
+		assertThat(type("23456", false)).isEqualTo(1);
+		// jokers
+		assertThat(type("JJJJJ", true)).isEqualTo(7);
+		assertThat(type("QJJQ2", true)).isEqualTo(6);
+		assertThat(type("2233J", true)).isEqualTo(5);
+		assertThat(type("T55J5", true)).isEqualTo(6);
+		assertThat(type("2345J", true)).isEqualTo(2);
+	}
+
+	@Test
+	void jokerIsWeakest() {
+		assertThat(key("JKKK2", true))
+				.isLessThan(key("QQQQ2", true));
+		assertThat(key("JKKK2", false))
+				.isLessThan(key("QQQQ2", false));
+		assertThat(key("J2345", true))
+				.isLessThan(key("22345", true));
+	}
+
+	static int key(final String hand, final boolean jokers) {
+		return HandRanking.key(hand.chars().mapToObj(c -> new Day07.Card((char) c)).toList(), jokers);
+	}
+
+	static int type(final String hand, final boolean jokers) {
+		return key(hand, jokers) >>> HandRanking.TYPE_SHIFT;
+	}
+
+}
@@ -0,0 +1,71 @@
+package de.knallisworld.aoc2023.day08;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import static de.knallisworld.aoc2023.day08.Day08.parseInput;
+import static de.knallisworld.aoc2023.day08.Day08.part1;
+import static de.knallisworld.aoc2023.day08.Day08.part2;
+import static de.knallisworld.aoc2023.support.puzzle.InputReader.readInputLines;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NetworkWalkerTest {
+
+	@Test
+	void testExamples() {
+		assertThat(part1(parseInput(readInputLines(8, "part0"))))
+				.isEqualTo("steps = 2");
+		assertThat(part1(parseInput(readInputLines(8, "part0b"))))
+				.isEqualTo("steps = 6");
+		assertThat(part2(parseInput(readInputLines(8, "part0c"))))
+				.isEqualTo("steps = 6");
+	}
+
+	@Test
+	void rejectsNonPeriodicEnds() {
+		// 11A reaches 11Z and 12Z alternately: the ends are not a plain cycle
+		final var input = parseInput(List.of(
+				"L",
+				"",
+				"11A = (11Z, 11Z)",
+				"11Z = (12Z, 12Z)",
+				"12Z = (11B, 11B)",
+				"11B = (11Z, 11Z)",
+				"22A = (22Z, 22Z)",
+				"22Z = (22A, 22A)"
+		));
+		assertThatThrownBy(() -> part2(input))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("11A");
+	}
+
+	@Test
+	void matchesStepByStep() {
+		final var input = parseInput(readInputLines(8, "part1"));
+		final Predicate<String> ending = n -> n.endsWith("Z");
+		final var walker = NetworkWalker.of(input, ending);
+
+		input.nodes().keySet().stream().filter(n -> n.endsWith("A")).forEach(start -> {
+			var node = start;
+			var steps = 0L;
+			// a few consecutive endings, each continuing mid-pass
+			for (var i = 0; i < 3; i++) {
+				final var hit = walker.next(walker.id(node), steps);
+				do {
+					final var dir = input.instructions().get((int) (steps % input.instructions().size()));
+					final var next = input.nodes().get(node);
+					node = dir == Day08.Dir.L ? next.left() : next.right();
+					steps++;
+				} while (!ending.test(node));
+				assertThat(hit.steps())
+						.isEqualTo(steps);
+				assertThat(walker.name(hit.node()))
+						.isEqualTo(node);
+			}
+		});
+	}
+
+}
@@ -0,0 +1,64 @@
+package de.knallisworld.aoc2023.day12;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SpringCounterTest {
+
+	static final String[] EXAMPLE = {
+			"???.### 1,1,3",
+			".??..??...?##. 1,1,3",
+			"?#?#?#?#?#?#?#? 1,3,1,6",
+			"????.#...#... 4,1,1",
+			"????.######..#####. 1,6,5",
+			"?###???????? 3,2,1"
+	};
+
+	@Test
+	void countExample() {
+		final var counter = new SpringCounter();
+		assertThat(Arrays.stream(EXAMPLE).mapToLong(line -> count(counter, line, 1)).toArray())
+				.containsExactly(1L, 4L, 1L, 1L, 4L, 10L);
+		assertThat(Arrays.stream(EXAMPLE).mapToLong(line -> count(counter, line, 5)).toArray())
+				.containsExactly(1L, 16384L, 1L, 16L, 2500L, 506250L);
+	}
+
+	@Test
+	void countExactMatchesCount() {
+		final var counter = new SpringCounter();
+		for (final var line : EXAMPLE) {
+			final var parts = line.split(" ");
+			final var records = parts[0].getBytes(StandardCharsets.US_ASCII);
+			final var groups = Arrays.stream(parts[1].split(",")).mapToInt(Integer::parseInt).toArray();
+			for (var unfold = 1; unfold <= 8; unfold++) {
+				assertThat(counter.countExact(records, groups, unfold))
+						.isEqualTo(BigInteger.valueOf(counter.count(records, groups, unfold)));
+			}
+		}
+	}
+
+	@Test
+	void overflow() {
+		final var counter = new SpringCounter();
+		final var records = "?###????????".getBytes(StandardCharsets.US_ASCII);
+		final var groups = new int[]{3, 2, 1};
+		assertThatThrownBy(() -> counter.count(records, groups, 20))
+				.isInstanceOf(ArithmeticException.class);
+		// 10 * 15^19
+		assertThat(counter.countExact(records, groups, 20))
+				.isEqualTo(BigInteger.valueOf(15).pow(19).multiply(BigInteger.TEN));
+	}
+
+	static long count(final SpringCounter counter, final String line, final int unfold) {
+		final var parts = line.split(" ");
+		final var groups = Arrays.stream(parts[1].split(",")).mapToInt(Integer::parseInt).toArray();
+		return counter.count(parts[0].getBytes(StandardCharsets.US_ASCII), groups, unfold);
+	}
+
+}
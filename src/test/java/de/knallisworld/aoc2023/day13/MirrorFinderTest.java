@@ -0,0 +1,50 @@
+package de.knallisworld.aoc2023.day13;
+
+import org.junit.jupiter.api.Test;
+
+import static de.knallisworld.aoc2023.day13.Day13.parseInput;
+import static de.knallisworld.aoc2023.day13.Day13.part1;
+import static de.knallisworld.aoc2023.day13.Day13.part2;
+import static de.knallisworld.aoc2023.support.puzzle.InputReader.readInputLines;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MirrorFinderTest {
+
+	@Test
+	void testExamples() {
+		assertThat(part1(parseInput(readInputLines(13, "part0"))))
+				.isEqualTo("sum = 405");
+		assertThat(part2(parseInput(readInputLines(13, "part0"))))
+				.isEqualTo("sum = 400");
+	}
+
+	@Test
+	void reflectionLines() {
+		final var patterns = parseInput(readInputLines(13, "part0")).patterns();
+		final var first = MirrorFinder.of(patterns.getFirst());
+		assertThat(first.columnsLeft(0))
+				.isEqualTo(5);
+		assertThat(first.rowsAbove(0))
+				.isZero();
+		assertThat(first.rowsAbove(1))
+				.isEqualTo(3);
+		final var second = MirrorFinder.of(patterns.getLast());
+		assertThat(second.rowsAbove(0))
+				.isEqualTo(4);
+		assertThat(second.rowsAbove(1))
+				.isEqualTo(1);
+	}
+
+	@Test
+	void find() {
+		// rows 0b01, 0b11, 0b11, 0b01: plain mirror after 2, smudged after 1 (and 3)
+		final var lines = new long[]{1, 3, 3, 1};
+		assertThat(MirrorFinder.find(lines, 0))
+				.isEqualTo(2);
+		assertThat(MirrorFinder.find(lines, 1))
+				.isEqualTo(1);
+		assertThat(MirrorFinder.find(lines, 2))
+				.isZero();
+	}
+
+}
@@ -0,0 +1,97 @@
+package de.knallisworld.aoc2023.day14;
+
+import de.knallisworld.aoc2023.support.geo.grid2.Direction;
+import de.knallisworld.aoc2023.support.geo.grid2.FixGrid;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static de.knallisworld.aoc2023.day14.Day14.parseInput;
+import static de.knallisworld.aoc2023.day14.Day14.part1;
+import static de.knallisworld.aoc2023.day14.Day14.part2;
+import static de.knallisworld.aoc2023.support.puzzle.InputReader.readInputLines;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TiltEngineTest {
+
+	@Test
+	void testExamples() {
+		assertThat(part1(parseInput(readInputLines(14, "part0"))))
+				.isEqualTo("sum = 136");
+		assertThat(part2(parseInput(readInputLines(14, "part0"))))
+				.isEqualTo("sum = 64");
+	}
+
+	@Test
+	void transpose64() {
+		final var random = new Random(14);
+		final var block = new long[64];
+		for (var i = 0; i < 64; i++) {
+			block[i] = random.nextLong();
+		}
+		final var transposed = block.clone();
+		TiltEngine.transpose64(transposed);
+		for (var i = 0; i < 64; i++) {
+			for (var j = 0; j < 64; j++) {
+				assertThat(transposed[j] >>> i & 1)
+						.isEqualTo(block[i] >>> j & 1);
+			}
+		}
+	}
+
+	@Test
+	void matchesCellByCell() {
+		// multiple words per line in both directions
+		final var random = new Random(42);
+		final var width = 150;
+		final var height = 130;
+		final var grid = FixGrid.create(Day14.Tile.class, height, width);
+		for (var y = 0; y < height; y++) {
+			for (var x = 0; x < width; x++) {
+				final var r = random.nextInt(10);
+				grid.setValue(x, y, r < 2 ? Day14.Tile.Rock : r < 5 ? Day14.Tile.Dish : Day14.Tile.Empty);
+			}
+		}
+		final var engine = TiltEngine.of(grid);
+		for (final var dir : new Direction[]{Direction.North, Direction.West, Direction.South, Direction.East, Direction.South}) {
+			engine.tilt(dir);
+			roll(grid, dir);
+			var load = 0L;
+			for (var y = 0; y < height; y++) {
+				for (var x = 0; x < width; x++) {
+					final var dish = grid.getValueRequired(x, y) == Day14.Tile.Dish;
+					assertThat(engine.isDish(x, y))
+							.as("%s at %d,%d", dir, x, y)
+							.isEqualTo(dish);
+					load += dish ? height - y : 0;
+				}
+			}
+			assertThat(engine.load())
+					.isEqualTo(load);
+		}
+	}
+
+	/**
+	 * Moves single dishes one cell at a time until nothing moves anymore.
+	 */
+	static void roll(final FixGrid<Day14.Tile> grid, final Direction dir) {
+		var moved = true;
+		while (moved) {
+			moved = false;
+			for (var y = 0; y < grid.getHeight(); y++) {
+				for (var x = 0; x < grid.getWidth(); x++) {
+					final var nx = x + dir.offset().getX();
+					final var ny = y + dir.offset().getY();
+					if (grid.getValueRequired(x, y) == Day14.Tile.Dish
+							&& grid.hasValue(nx, ny)
+							&& grid.getValueRequired(nx, ny) == Day14.Tile.Empty) {
+						grid.setValue(nx, ny, Day14.Tile.Dish);
+						grid.setValue(x, y, Day14.Tile.Empty);
+						moved = true;
+					}
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,83 @@
+package de.knallisworld.aoc2023.day19;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static de.knallisworld.aoc2023.day19.Day19.parseInput;
+import static de.knallisworld.aoc2023.day19.Day19.part2;
+import static de.knallisworld.aoc2023.support.puzzle.InputReader.readInputLines;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AcceptedRegionsTest {
+
+	@Test
+	void testPart2() {
+		assertThat(part2(parseInput(readInputLines(19, "part0"))))
+				.isEqualTo("distinct = 167409079868000");
+	}
+
+	@Test
+	void matchesProgram() {
+		final var input = parseInput(readInputLines(19, "part1"));
+		final var program = WorkflowProgram.compile(input.workflows(), "in");
+		final var regions = AcceptedRegions.of(program);
+
+		final var random = new Random(19);
+		for (var i = 0; i < 10_000; i++) {
+			final var rating = new Day19.Rating(
+					random.nextInt(1, 4001),
+					random.nextInt(1, 4001),
+					random.nextInt(1, 4001),
+					random.nextInt(1, 4001)
+			);
+			assertThat(regions.accepts(rating))
+					.isEqualTo(program.accepts(rating));
+		}
+
+		// small query boxes: count by brute force
+		for (var i = 0; i < 20; i++) {
+			final var query = new int[8];
+			for (var d = 0; d < 4; d++) {
+				query[d] = random.nextInt(1, 3990);
+				query[d + 4] = query[d] + random.nextInt(1, 11);
+			}
+			var expected = 0L;
+			for (var x = query[0]; x < query[4]; x++) {
+				for (var m = query[1]; m < query[5]; m++) {
+					for (var a = query[2]; a < query[6]; a++) {
+						for (var s = query[3]; s < query[7]; s++) {
+							if (program.accepts(x, m, a, s)) {
+								expected++;
+							}
+						}
+					}
+				}
+			}
+			assertThat(regions.volume(query))
+					.isEqualTo(expected);
+		}
+
+		// large query boxes: sum over all boxes
+		for (var i = 0; i < 100; i++) {
+			final var query = new int[8];
+			for (var d = 0; d < 4; d++) {
+				final var a = random.nextInt(1, 4002);
+				final var b = random.nextInt(1, 4002);
+				query[d] = Math.min(a, b);
+				query[d + 4] = Math.max(a, b);
+			}
+			var expected = 0L;
+			for (final var box : regions.boxes()) {
+				var volume = 1L;
+				for (var d = 0; d < 4; d++) {
+					volume *= Math.max(0, Math.min(box[d + 4], query[d + 4]) - Math.max(box[d], query[d]));
+				}
+				expected += volume;
+			}
+			assertThat(regions.volume(query))
+					.isEqualTo(expected);
+		}
+	}
+
+}
@@ -0,0 +1,49 @@
+package de.knallisworld.aoc2023.day19;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static de.knallisworld.aoc2023.day19.Day19.parseInput;
+import static de.knallisworld.aoc2023.day19.Day19.part1;
+import static de.knallisworld.aoc2023.support.puzzle.InputReader.readInputLines;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkflowProgramTest {
+
+	@Test
+	void testPart1() {
+		assertThat(part1(parseInput(readInputLines(19, "part0"))))
+				.isEqualTo("accepted = 3, rejected = 2, sum = 19114");
+	}
+
+	@Test
+	void matchesWorkflows() throws Throwable {
+		final var input = parseInput(readInputLines(19, "part1"));
+		final var workflows = input.workflows().stream().collect(toMap(Day19.Workflow::name, identity()));
+		final var program = WorkflowProgram.compile(input.workflows(), "in");
+		final var handle = program.toMethodHandle();
+
+		final var random = new Random(19);
+		for (var i = 0; i < 10_000; i++) {
+			final var rating = new Day19.Rating(
+					random.nextInt(1, 4001),
+					random.nextInt(1, 4001),
+					random.nextInt(1, 4001),
+					random.nextInt(1, 4001)
+			);
+			var label = "in";
+			while (!"A".equals(label) && !"R".equals(label)) {
+				label = workflows.get(label).process(rating).orElseThrow();
+			}
+			final var expected = "A".equals(label);
+			assertThat(program.accepts(rating))
+					.isEqualTo(expected);
+			assertThat((boolean) handle.invokeExact(rating.x(), rating.m(), rating.a(), rating.s()))
+					.isEqualTo(expected);
+		}
+	}
+
+}
@@ -0,0 +1,94 @@
+package de.knallisworld.aoc2023.day20;
+
+import de.knallisworld.aoc2023.support.math.NumberTheory.Cycle;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static de.knallisworld.aoc2023.day20.Day20.parseNetwork;
+import static java.util.stream.Collectors.joining;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitAnalyzerTest {
+
+	@Test
+	void matchesSimulation() {
+		// counters of 2, 3 and 4 bits, firing every 3, 7 and 15 presses
+		final var network = parseNetwork(counters("out", 1, 2, 3, 4));
+		assertThat(CircuitAnalyzer.firstLowPulse(network, "out"))
+				.isEqualTo(105)
+				.isEqualTo(simulate(network, "out"));
+	}
+
+	@Test
+	void anyTarget() {
+		final var lines = new ArrayList<>(counters("x", 1, 3, 5));
+		lines.add("&x -> y");
+		final var network = parseNetwork(lines);
+		// x gets a low pulse iff both counters fired; y is not decomposable, but observed directly
+		assertThat(CircuitAnalyzer.firstLowPulse(network, "x"))
+				.isEqualTo(simulate(network, "x"));
+		assertThat(CircuitAnalyzer.firstLowPulse(network, "y"))
+				.isEqualTo(simulate(network, "y"));
+	}
+
+	@Test
+	void nonZeroPhases() {
+		// wrapping to 2 instead of 0: first at 7, 15 and 31, then every 5, 13 and 29 presses (phase 2 each)
+		final var network = parseNetwork(counters("out", 2, 3, 4, 5));
+		assertThat(CircuitAnalyzer.analyze(network, "out", CircuitAnalyzer.DEFAULT_MAX_PRESSES))
+				.isEqualTo(new Cycle(1887, 5 * 13 * 29));
+		assertThat(CircuitAnalyzer.firstLowPulse(network, "out"))
+				.isEqualTo(simulate(network, "out"));
+	}
+
+	@Test
+	void manyWatches() {
+		// one watch per counter, more than fit into a single long
+		final var bits = IntStream.range(0, 100).map(i -> 2 + i % 2).toArray();
+		final var network = parseNetwork(counters("out", 1, bits));
+		assertThat(CircuitAnalyzer.firstLowPulse(network, "out"))
+				.isEqualTo(21)
+				.isEqualTo(simulate(network, "out"));
+	}
+
+	/**
+	 * Independent binary counters (like the puzzle input). Once all bits of a counter are on, it adds 2^feedback - 1
+	 * to itself: with feedback 1, it wraps to 0 and fires every 2^bits - 1 presses.
+	 */
+	static List<String> counters(final String target, final int feedback, final int... bits) {
+		final var lines = new ArrayList<String>();
+		final var starts = new ArrayList<String>();
+		for (var c = 0; c < bits.length; c++) {
+			final var prefix = "c" + c + "_";
+			for (var b = 0; b < bits[c]; b++) {
+				final var next = b + 1 < bits[c] ? prefix + (b + 1) + ", " : "";
+				lines.add("%%%s%d -> %s%sand".formatted(prefix, b, next, prefix));
+			}
+			final var resets = IntStream.range(0, feedback)
+										.mapToObj(b -> prefix + b + ", ")
+										.collect(joining());
+			lines.add("&%sand -> %s%sinv".formatted(prefix, resets, prefix));
+			lines.add("&%sinv -> final".formatted(prefix));
+			starts.add(prefix + "0");
+		}
+		lines.add("broadcaster -> " + String.join(", ", starts));
+		lines.add("&final -> " + target);
+		return lines;
+	}
+
+	static long simulate(final Day20.Network network, final String target) {
+		final var simulator = PulseSimulator.compile(network);
+		for (final var edge : simulator.incoming(simulator.id(target))) {
+			simulator.watch(edge, false);
+		}
+		for (var press = 1L; ; press++) {
+			if (!simulator.press().isEmpty()) {
+				return press;
+			}
+		}
+	}
+
+}
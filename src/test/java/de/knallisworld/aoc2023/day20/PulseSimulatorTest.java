@@ -0,0 +1,55 @@
+package de.knallisworld.aoc2023.day20;
+
+import org.junit.jupiter.api.Test;
+
+import static de.knallisworld.aoc2023.day20.Day20.parseNetwork;
+import static de.knallisworld.aoc2023.day20.Day20.part1;
+import static de.knallisworld.aoc2023.support.puzzle.InputReader.readInputLines;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PulseSimulatorTest {
+
+	@Test
+	void testPart1() {
+		assertThat(part1(PulseSimulator.compile(parseNetwork(readInputLines(20, "part0")))))
+				.isEqualTo("result = 32000000");
+		assertThat(part1(PulseSimulator.compile(parseNetwork(readInputLines(20, "part0b")))))
+				.isEqualTo("result = 11687500");
+	}
+
+	@Test
+	void matchesEnvironment() {
+		final var lines = readInputLines(20, "part1");
+		final var simulator = PulseSimulator.compile(parseNetwork(lines));
+		final var env = ReferenceSimulator.of(parseNetwork(lines));
+		env.configure();
+		for (var i = 0; i < 100; i++) {
+			simulator.press();
+			env.initiate();
+			final var stats = env.getPulseStatistics();
+			assertThat(simulator.lowPulses())
+					.isEqualTo(stats.get(ReferenceSimulator.Pulse.LOW));
+			assertThat(simulator.highPulses())
+					.isEqualTo(stats.get(ReferenceSimulator.Pulse.HIGH));
+		}
+	}
+
+	@Test
+	void watch() {
+		final var simulator = PulseSimulator.compile(parseNetwork(readInputLines(20, "part0b")));
+		final var con = simulator.id("con");
+		final var output = simulator.id("output");
+		final var edge = simulator.incoming(output)[0];
+		assertThat(simulator.source(edge))
+				.isEqualTo(con);
+		final var high = simulator.watch(edge, true);
+		final var low = simulator.watch(edge, false);
+
+		// the example's walkthrough: both pulses on the first press, only a high one on the second
+		assertThat(simulator.press().stream())
+				.containsExactlyInAnyOrder(high, low);
+		assertThat(simulator.press().stream())
+				.containsExactly(high);
+	}
+
+}
@@ -0,0 +1,123 @@
+package de.knallisworld.aoc2023.day22;
+
+import de.knallisworld.aoc2023.day22.Day22.Box;
+import de.knallisworld.aoc2023.day22.Day22.Point3D;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static de.knallisworld.aoc2023.day22.Day22.parseInput;
+import static de.knallisworld.aoc2023.support.puzzle.InputReader.readInputLines;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BrickStackTest {
+
+	@Test
+	void testExample() {
+		final var stack = BrickStack.settle(parseInput(readInputLines(22, "part0")));
+		assertThat(stack.bricks())
+				.containsExactlyInAnyOrderElementsOf(parseInput(List.of(
+						"1,0,1~1,2,1",
+						"0,0,2~2,0,2",
+						"0,2,2~2,2,2",
+						"0,0,3~0,2,3",
+						"2,0,3~2,2,3",
+						"0,1,4~2,1,4",
+						"1,1,5~1,1,6"
+				)));
+		assertThat(stack.fallen())
+				.isEqualTo(5);
+		assertThat(stack.countDisintegrable())
+				.isEqualTo(5);
+		assertThat(Arrays.stream(stack.chainReactions()).sum())
+				.isEqualTo(7);
+	}
+
+	@Test
+	void matchesBruteForce() {
+		final var random = new Random(22);
+		for (var round = 0; round < 30; round++) {
+			final var input = randomBricks(random, 25);
+			final var stack = BrickStack.settle(input);
+			final var settled = settleBruteForce(input);
+			assertThat(stack.bricks())
+					.containsExactlyInAnyOrderElementsOf(settled);
+
+			final var chainReactions = stack.chainReactions();
+			var disintegrable = 0;
+			for (var id = 0; id < stack.bricks().size(); id++) {
+				final var remaining = new ArrayList<>(stack.bricks());
+				remaining.remove(id);
+				final var after = settleBruteForce(remaining);
+				// by index: a fallen brick may take the former place of an equal one
+				final var fallen = (int) IntStream.range(0, remaining.size())
+												  .filter(i -> !remaining.get(i).equals(after.get(i)))
+												  .count();
+				assertThat(chainReactions[id])
+						.as("chain reaction of %s", stack.bricks().get(id))
+						.isEqualTo(fallen);
+				if (fallen == 0) {
+					disintegrable++;
+				}
+			}
+			assertThat(stack.countDisintegrable())
+					.isEqualTo(disintegrable);
+		}
+	}
+
+	private static List<Box> randomBricks(final Random random, final int count) {
+		final var result = new ArrayList<Box>();
+		while (result.size() < count) {
+			final var x = random.nextInt(4);
+			final var y = random.nextInt(4);
+			final var z = random.nextInt(1, 40);
+			final var length = random.nextInt(3);
+			final var box = switch (random.nextInt(3)) {
+				case 0 -> new Box(new Point3D(x, y, z), new Point3D(Math.min(3, x + length), y, z));
+				case 1 -> new Box(new Point3D(x, y, z), new Point3D(x, Math.min(3, y + length), z));
+				default -> new Box(new Point3D(x, y, z), new Point3D(x, y, z + length));
+			};
+			if (result.stream().noneMatch(other -> overlaps(box, other))) {
+				result.add(box);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Moves single bricks down one step at a time until nothing moves anymore (keeps the order).
+	 */
+	private static List<Box> settleBruteForce(final List<Box> input) {
+		final var bricks = new ArrayList<>(input);
+		var moved = true;
+		while (moved) {
+			moved = false;
+			for (var i = 0; i < bricks.size(); i++) {
+				final var lower = bricks.get(i).down(1);
+				if (lower.minZ() < 1) {
+					continue;
+				}
+				var free = true;
+				for (var j = 0; j < bricks.size() && free; j++) {
+					free = i == j || !overlaps(lower, bricks.get(j));
+				}
+				if (free) {
+					bricks.set(i, lower);
+					moved = true;
+				}
+			}
+		}
+		return bricks;
+	}
+
+	private static boolean overlaps(final Box a, final Box b) {
+		return a.from().x() <= b.to().x() && b.from().x() <= a.to().x()
+				&& a.from().y() <= b.to().y() && b.from().y() <= a.to().y()
+				&& a.from().z() <= b.to().z() && b.from().z() <= a.to().z();
+	}
+
+}
@@ -0,0 +1,76 @@
+package de.knallisworld.aoc2023.day22;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static de.knallisworld.aoc2023.day22.Day22.parseInput;
+import static de.knallisworld.aoc2023.support.puzzle.InputReader.readInputLines;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MutableBrickStackTest {
+
+	@Test
+	void removeMatchesFullSettle() {
+		final var stack = BrickStack.settle(parseInput(readInputLines(22, "part1")));
+		final var chainReactions = stack.chainReactions();
+		final var mutable = MutableBrickStack.of(stack);
+		final var original = new HashSet<>(stack.bricks());
+		final var originalDisintegrable = Set.copyOf(mutable.disintegrable());
+
+		final var random = new Random(22);
+		for (var i = 0; i < 50; i++) {
+			final var id = random.nextInt(stack.bricks().size());
+			final var delta = mutable.remove(id);
+			assertThat(delta.fallen())
+					.isEqualTo(chainReactions[id]);
+
+			final var remaining = new ArrayList<>(stack.bricks());
+			remaining.remove(id);
+			final var expected = BrickStack.settle(remaining);
+			assertThat(currentBricks(mutable, stack.bricks().size()))
+					.containsExactlyInAnyOrderElementsOf(expected.bricks());
+			assertThat(mutable.disintegrable().stream().map(b -> mutable.getBrick(b).orElseThrow()).toList())
+					.containsExactlyInAnyOrderElementsOf(disintegrable(expected));
+
+			mutable.revert(delta);
+			assertThat(currentBricks(mutable, stack.bricks().size()))
+					.containsExactlyInAnyOrderElementsOf(original);
+			assertThat(mutable.disintegrable())
+					.isEqualTo(originalDisintegrable);
+		}
+	}
+
+	@Test
+	void addDropsUntilResting() {
+		final var stack = BrickStack.settle(parseInput(readInputLines(22, "part0")));
+		final var mutable = MutableBrickStack.of(stack);
+		final var delta = mutable.add(parseInput(List.of("1,1,20~1,1,20")).getFirst());
+		final var added = delta.moves().getFirst();
+		assertThat(added.to()).isNotNull();
+		// the top brick (vertical 1,1) ends at z=7 after settling
+		assertThat(added.to().minZ()).isEqualTo(7);
+		assertThat(mutable.supportedBy(added.id())).hasSize(1);
+	}
+
+	private static List<Day22.Box> disintegrable(final BrickStack stack) {
+		return IntStream.range(0, stack.bricks().size())
+						.filter(stack::isDisintegrable)
+						.mapToObj(stack.bricks()::get)
+						.toList();
+	}
+
+	private static List<Day22.Box> currentBricks(final MutableBrickStack stack, final int maxId) {
+		return IntStream.range(0, maxId)
+						.mapToObj(stack::getBrick)
+						.flatMap(Optional::stream)
+						.toList();
+	}
+
+}
@@ -0,0 +1,53 @@
+package de.knallisworld.aoc2023.day24;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+
+import static de.knallisworld.aoc2023.day24.Day24.parseInput;
+import static de.knallisworld.aoc2023.day24.Day24.part2;
+import static de.knallisworld.aoc2023.support.puzzle.InputReader.readInputLines;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Day24Test {
+
+	@Test
+	void testPart2() {
+		assertThat(part2(parseInput(readInputLines(24, "part0")), 7, 27))
+				.isEqualTo("solution = 47");
+	}
+
+	@Test
+	void hits() {
+		final var rock = new Day24.Rock(ints(24, 13, 10), ints(-3, 1, 2));
+		final var hailstones = parseInput(readInputLines(24, "part0"));
+		assertThat(hailstones)
+				.allMatch(line -> Day24.hits(rock, line));
+
+		// parallel (P - p) and (V - v), but the collision would be at t = -1
+		assertThat(Day24.hits(rock, line("25, 12, 8 @ -2, 0, 0")))
+				.isFalse();
+		// same at t = 2 on x, never on y
+		assertThat(Day24.hits(rock, line("20, 16, 14 @ -1, 0, 2")))
+				.isFalse();
+		// parallel as well, but at t = 1/2
+		assertThat(Day24.hits(rock, line("23, 13, 10 @ -1, 1, 2")))
+				.isFalse();
+		// same velocity: only the very same position counts
+		assertThat(Day24.hits(rock, line("24, 13, 10 @ -3, 1, 2")))
+				.isTrue();
+		assertThat(Day24.hits(rock, line("21, 14, 12 @ -3, 1, 2")))
+				.isFalse();
+	}
+
+	private static Day24.Line3D line(final String s) {
+		return parseInput(List.of(s)).getFirst();
+	}
+
+	private static BigInteger[] ints(final long... values) {
+		return Arrays.stream(values).mapToObj(BigInteger::valueOf).toArray(BigInteger[]::new);
+	}
+
+}
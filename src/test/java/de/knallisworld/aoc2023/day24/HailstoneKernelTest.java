@@ -0,0 +1,38 @@
+package de.knallisworld.aoc2023.day24;
+
+import org.apache.commons.geometry.euclidean.twod.Vector2D;
+import org.junit.jupiter.api.Test;
+
+import static de.knallisworld.aoc2023.day24.Day24.getXYCrossings2;
+import static de.knallisworld.aoc2023.day24.Day24.parseInput;
+import static de.knallisworld.aoc2023.support.puzzle.InputReader.readInputLines;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HailstoneKernelTest {
+
+	@Test
+	void countXYCrossingsDemo() {
+		final var lines = parseInput(readInputLines(24, "part0"));
+		assertThat(HailstoneKernel.of(lines).countXYCrossings(7, 27))
+				.isEqualTo(2);
+	}
+
+	@Test
+	void countXYCrossingsMatchesReference() {
+		final var lines = parseInput(readInputLines(24, "part1"));
+		final var min = 200000000000000D;
+		final var max = 400000000000000D;
+		assertThat(HailstoneKernel.of(lines).countXYCrossings(min, max))
+				.isEqualTo(getXYCrossings2(lines, Vector2D.of(min, min), Vector2D.of(max, max)).size());
+	}
+
+	@Test
+	void crossSignumBeyondLong() {
+		// 2^62 * 4 - 1 * 1 does not fit in a long
+		assertThat(HailstoneKernel.crossSignum(1L << 62, 4, 1, 1)).isEqualTo(1);
+		assertThat(HailstoneKernel.crossSignum(1, 1, 1L << 62, 4)).isEqualTo(-1);
+		assertThat(HailstoneKernel.crossSignum(1L << 62, 4, 1L << 62, 4)).isEqualTo(0);
+		assertThat(HailstoneKernel.crossToDouble(1L << 62, 4, 0, 0)).isEqualTo(0x1p64);
+	}
+
+}
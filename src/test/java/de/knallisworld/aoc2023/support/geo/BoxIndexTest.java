@@ -0,0 +1,60 @@
+package de.knallisworld.aoc2023.support.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoxIndexTest {
+
+	@Test
+	void onTopOfAndBelow() {
+		final var index = BoxIndex.<String>create();
+		index.add("a", new Box3D(0, 0, 1, 2, 0, 1));
+		index.add("b", new Box3D(0, 0, 2, 0, 2, 2));
+		index.add("c", new Box3D(2, 0, 2, 2, 2, 2));
+		index.add("d", new Box3D(1, 1, 2, 1, 1, 5));
+		assertThat(index.onTopOf(new Box3D(0, 0, 1, 2, 0, 1)))
+				.containsExactlyInAnyOrder("b", "c");
+		assertThat(index.below(new Box3D(0, 0, 2, 0, 2, 2)))
+				.containsExactly("a");
+		assertThat(index.below(new Box3D(1, 1, 2, 1, 1, 5)))
+				.isEmpty();
+	}
+
+	@Test
+	void overlappingMatchesBruteForce() {
+		final var random = new Random(22);
+		final var index = BoxIndex.<Integer>create(3);
+		final var boxes = new ArrayList<Box3D>();
+		for (var i = 0; i < 500; i++) {
+			final var box = randomBox(random);
+			boxes.add(box);
+			index.add(i, box);
+		}
+		for (var i = 0; i < 100; i += 3) {
+			index.remove(i);
+		}
+		for (var q = 0; q < 200; q++) {
+			final var region = randomBox(random);
+			final var expected = new ArrayList<Integer>();
+			for (var i = 0; i < boxes.size(); i++) {
+				if (!(i < 100 && i % 3 == 0) && boxes.get(i).overlaps(region)) {
+					expected.add(i);
+				}
+			}
+			assertThat(index.overlapping(region))
+					.containsExactlyInAnyOrderElementsOf(expected);
+		}
+	}
+
+	private static Box3D randomBox(final Random random) {
+		final var x = random.nextInt(-20, 20);
+		final var y = random.nextInt(-20, 20);
+		final var z = random.nextInt(0, 40);
+		return new Box3D(x, y, z, x + random.nextInt(8), y + random.nextInt(8), z + random.nextInt(8));
+	}
+
+}
@@ -0,0 +1,91 @@
+package de.knallisworld.aoc2023.support.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ManhattanDistancesTest {
+
+	// day 11 example
+	static final List<String> SKY = List.of(
+			"...#......",
+			".......#..",
+			"#.........",
+			"..........",
+			"......#...",
+			".#........",
+			".........#",
+			"..........",
+			".......#..",
+			"#...#....."
+	);
+
+	static long sum(final long scale) {
+		final var xs = new ArrayList<Long>();
+		final var ys = new ArrayList<Long>();
+		for (var y = 0; y < SKY.size(); y++) {
+			for (var x = 0; x < SKY.get(y).length(); x++) {
+				if (SKY.get(y).charAt(x) == '#') {
+					xs.add((long) x);
+					ys.add((long) y);
+				}
+			}
+		}
+		return ManhattanDistances.pairwiseSum(
+				xs.stream().mapToLong(Long::longValue).toArray(),
+				ys.stream().mapToLong(Long::longValue).toArray(),
+				scale
+		);
+	}
+
+	@Test
+	void example() {
+		assertThat(sum(2))
+				.isEqualTo(374);
+		assertThat(sum(10))
+				.isEqualTo(1030);
+		assertThat(sum(100))
+				.isEqualTo(8410);
+	}
+
+	@Test
+	void matchesAllPairs() {
+		final var random = new Random(42);
+		final var n = 300;
+		final var xs = new long[n];
+		final var ys = new long[n];
+		var expected = 0L;
+		for (var i = 0; i < n; i++) {
+			xs[i] = random.nextInt(-1000, 1000);
+			ys[i] = random.nextInt(-1000, 1000);
+			for (var j = 0; j < i; j++) {
+				expected += Math.abs(xs[i] - xs[j]) + Math.abs(ys[i] - ys[j]);
+			}
+		}
+		assertThat(ManhattanDistances.pairwiseSum(xs, ys))
+				.isEqualTo(expected);
+	}
+
+	@Test
+	void expandsOnlyUnusedValues() {
+		// unused 2, 3 and 5 become three wide each: 4 -> 8, 6 -> 12 (both occurring twice)
+		assertThat(ManhattanDistances.pairwiseSum(new long[]{6, 0, 4, 1, 6, 4}, 3))
+				.isEqualTo(ManhattanDistances.pairwiseSum(new long[]{0, 1, 8, 8, 12, 12}, 1));
+		assertThat(ManhattanDistances.pairwiseSum(new long[0], 1_000_000))
+				.isZero();
+		assertThatThrownBy(() -> ManhattanDistances.pairwiseSum(new long[]{1}, 0))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void overflow() {
+		assertThatThrownBy(() -> ManhattanDistances.pairwiseSum(new long[]{0, Long.MAX_VALUE / 2}, 3))
+				.isInstanceOf(ArithmeticException.class);
+	}
+
+}
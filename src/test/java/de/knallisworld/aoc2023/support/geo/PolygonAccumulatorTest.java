@@ -0,0 +1,52 @@
+package de.knallisworld.aoc2023.support.geo;
+
+import de.knallisworld.aoc2023.support.geo.grid2.Direction;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PolygonAccumulatorTest {
+
+	record Step(Direction dir, long length) {
+	}
+
+	// 4x3 rectangle of lattice points with a notch
+	static final List<Step> STEPS = List.of(
+			new Step(Direction.East, 3),
+			new Step(Direction.South, 2),
+			new Step(Direction.West, 1),
+			new Step(Direction.North, 1),
+			new Step(Direction.West, 2),
+			new Step(Direction.North, 1)
+	);
+
+	@Test
+	void measure() {
+		final var acc = PolygonAccumulator.create();
+		STEPS.forEach(s -> acc.add(s.dir(), s.length()));
+		assertThat(acc.isClosed()).isTrue();
+		assertThat(acc.area()).isEqualTo(4);
+		assertThat(acc.boundary()).isEqualTo(10);
+		assertThat(acc.interior()).isEqualTo(0);
+		assertThat(acc.covered()).isEqualTo(10);
+	}
+
+	@Test
+	void collectParallel() {
+		final var acc = STEPS.parallelStream()
+							 .collect(PolygonAccumulator.collector(Step::dir, Step::length));
+		assertThat(acc.area()).isEqualTo(4);
+		assertThat(acc.covered()).isEqualTo(10);
+	}
+
+	@Test
+	void notClosed() {
+		final var acc = PolygonAccumulator.create()
+										  .add(Direction.East, 3);
+		assertThatThrownBy(acc::area).isInstanceOf(IllegalStateException.class);
+	}
+
+}
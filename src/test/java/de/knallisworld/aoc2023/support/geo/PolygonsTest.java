@@ -0,0 +1,45 @@
+package de.knallisworld.aoc2023.support.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PolygonsTest {
+
+	@Test
+	void traceLoop() {
+		// ring of 3x3 cells, the center one is not part of the loop
+		final var loop = Polygons.traceLoop(
+				Point2D.create(0, 0),
+				(p, dir) -> {
+					final var n = p.add(dir.offset());
+					final var x = n.getX();
+					final var y = n.getY();
+					return 0 <= x && x <= 2 && 0 <= y && y <= 2 && !(x == 1 && y == 1);
+				}
+		);
+		assertThat(loop)
+				.hasSize(8)
+				.startsWith(Point2D.create(0, 0))
+				.doesNotContain(Point2D.create(1, 1));
+		assertThat(Polygons.countEnclosed(loop))
+				.isEqualTo(1);
+	}
+
+	@Test
+	void shoelaceArea2() {
+		final var square = List.of(
+				Point2D.create(0, 0),
+				Point2D.create(4, 0),
+				Point2D.create(4, 4),
+				Point2D.create(0, 4)
+		);
+		assertThat(Polygons.shoelaceArea2(square))
+				.isEqualTo(32);
+		assertThat(Polygons.shoelaceArea2(square.reversed()))
+				.isEqualTo(32);
+	}
+
+}
@@ -0,0 +1,139 @@
+package de.knallisworld.aoc2023.support.geo.grid2;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompressedGridTest {
+
+	enum Tile {
+		Trench,
+		Outside
+	}
+
+	record Dig(Direction dir, long amount) {
+	}
+
+	// day 18 example
+	static final List<String> PLAN = List.of(
+			"R 6 (#70c710)",
+			"D 5 (#0dc571)",
+			"L 2 (#5713f0)",
+			"D 2 (#d2c081)",
+			"R 2 (#59c680)",
+			"D 2 (#411b91)",
+			"L 5 (#8ceee2)",
+			"U 2 (#caa173)",
+			"L 1 (#1b58a2)",
+			"U 2 (#caa171)",
+			"R 2 (#7807d2)",
+			"U 3 (#a77fa3)",
+			"L 2 (#015232)",
+			"U 2 (#7a21e3)"
+	);
+
+	static List<Dig> plan(final boolean decode) {
+		return PLAN.stream()
+				   .map(line -> line.split(" "))
+				   .map(p -> decode
+						   // 0 = R, 1 = D, 2 = L, 3 = U
+						   ? new Dig(Direction.values()[(p[2].charAt(7) - '0' + 1) % 4], HexFormat.fromHexDigits(p[2], 2, 7))
+						   : new Dig(direction(p[0]), Long.parseLong(p[1])))
+				   .toList();
+	}
+
+	static Direction direction(final String s) {
+		return switch (s) {
+			case "U" -> Direction.North;
+			case "R" -> Direction.East;
+			case "D" -> Direction.South;
+			default -> Direction.West;
+		};
+	}
+
+	/**
+	 * Digs the trench (one unit wide) and counts everything not reachable from the outside.
+	 */
+	static long lagoon(final List<Dig> plan) {
+		final var xs = new ArrayList<Long>();
+		final var ys = new ArrayList<Long>();
+		final var corners = new ArrayList<long[]>();
+		var x = 0L;
+		var y = 0L;
+		for (final var dig : plan) {
+			corners.add(new long[]{x, y});
+			xs.addAll(List.of(x, x + 1));
+			ys.addAll(List.of(y, y + 1));
+			x += dig.dir().offset().getX() * dig.amount();
+			y += dig.dir().offset().getY() * dig.amount();
+		}
+		// a margin for the outside to flow around
+		xs.addAll(List.of(Collections.min(xs) - 1, Collections.max(xs) + 1));
+		ys.addAll(List.of(Collections.min(ys) - 1, Collections.max(ys) + 1));
+
+		final var grid = CompressedGrid.create(Tile.class, xs, ys);
+		for (var i = 0; i < corners.size(); i++) {
+			final var a = corners.get(i);
+			final var b = corners.get((i + 1) % corners.size());
+			grid.fill(Math.min(a[0], b[0]), Math.min(a[1], b[1]), Math.max(a[0], b[0]) + 1, Math.max(a[1], b[1]) + 1, Tile.Trench);
+		}
+		final var outside = grid.floodFill(0, 0, Tile.Outside);
+		final var all = (Collections.max(xs) - Collections.min(xs)) * (Collections.max(ys) - Collections.min(ys));
+		assertThat(grid.area(Tile.Outside::equals))
+				.isEqualTo(outside);
+		return all - outside;
+	}
+
+	@Test
+	void digPlanExamples() {
+		assertThat(lagoon(plan(false)))
+				.isEqualTo(62);
+		assertThat(lagoon(plan(true)))
+				.isEqualTo(952408144115L);
+	}
+
+	@Test
+	void axes() {
+		final var grid = CompressedGrid.<Tile>create(Tile.class, List.of(10L, 0L, 1_000_000_000L, 10L), List.of(0L, 5L));
+		assertThat(grid.getWidth())
+				.isEqualTo(2);
+		assertThat(grid.getHeight())
+				.isEqualTo(1);
+		assertThat(grid.column(9))
+				.isZero();
+		assertThat(grid.column(10))
+				.isEqualTo(1);
+		assertThat(grid.columnWidth(1))
+				.isEqualTo(999_999_990L);
+		assertThat(grid.cellArea(1, 0))
+				.isEqualTo(4_999_999_950L);
+		assertThatThrownBy(() -> grid.column(1_000_000_000L))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> grid.fill(0, 0, 5, 5, Tile.Trench))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> CompressedGrid.create(Tile.class, List.of(1L, 1L), List.of(0L, 5L)))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void distances() {
+		// 3 x 3 cells, the center blocked: a wall of width 100 and height 1000
+		final var grid = CompressedGrid.create(Tile.class, List.of(0L, 1L, 101L, 102L), List.of(0L, 1L, 1001L, 1002L));
+		grid.setValue(1, 1, Tile.Trench);
+		final var distances = grid.distances(0, 0, Optional::isEmpty);
+		assertThat(distances[2][2])
+				.isEqualTo(101 + 1001);
+		assertThat(distances[0][2])
+				.isEqualTo(101);
+		assertThat(distances[1][1])
+				.isEqualTo(Long.MAX_VALUE);
+	}
+
+}
@@ -0,0 +1,44 @@
+package de.knallisworld.aoc2023.support.lang;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RadixSortTest {
+
+	@Test
+	void sortsAllBits() {
+		final var random = new Random(7);
+		for (final var size : new int[]{0, 1, 100, RadixSort.PARALLEL_THRESHOLD * 3 + 17}) {
+			final var values = random.longs(size, 0, Long.MAX_VALUE).toArray();
+			final var expected = values.clone();
+			Arrays.sort(expected);
+			RadixSort.sort(values, 0, 63);
+			assertThat(values)
+					.containsExactly(expected);
+		}
+	}
+
+	@Test
+	void stableByBitRange() {
+		final var random = new Random(7);
+		// key in bits 32..44, original index below
+		final var values = new long[RadixSort.PARALLEL_THRESHOLD * 2 + 5];
+		for (var i = 0; i < values.length; i++) {
+			values[i] = (long) random.nextInt(1 << 12) << 32 | i;
+		}
+		final var expected = Arrays.stream(values)
+								   .boxed()
+								   .sorted(Comparator.comparingLong(v -> v >>> 32))
+								   .mapToLong(Long::longValue)
+								   .toArray();
+		RadixSort.sort(values, 32, 44);
+		assertThat(values)
+				.containsExactly(expected);
+	}
+
+}
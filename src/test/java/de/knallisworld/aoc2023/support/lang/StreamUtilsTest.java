@@ -0,0 +1,57 @@
+package de.knallisworld.aoc2023.support.lang;
+
+import de.knallisworld.aoc2023.support.math.LongRangeSet.Range;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamUtilsTest {
+
+	static final List<Range> RANGES = List.of(
+			new Range(10, 15),
+			new Range(20, 20),
+			new Range(100, 100_000),
+			new Range(-5, -3)
+	);
+
+	@Test
+	void longRanges() {
+		assertThat(StreamUtils.longRanges(RANGES).limit(8).toArray())
+				.containsExactly(10, 11, 12, 13, 14, 100, 101, 102);
+		assertThat(StreamUtils.longRanges(RANGES).count())
+				.isEqualTo(5 + 99_900 + 2);
+	}
+
+	@Test
+	void longRangesParallel() {
+		final var expected = StreamUtils.longRanges(RANGES).sum();
+		assertThat(StreamUtils.longRanges(RANGES).parallel().sum())
+				.isEqualTo(expected);
+		assertThat(StreamUtils.longRanges(RANGES).parallel().toArray())
+				.isEqualTo(StreamUtils.longRanges(RANGES).toArray());
+		assertThat(StreamUtils.longRanges(List.of()).parallel().count())
+				.isZero();
+	}
+
+	@Test
+	void smallestAndLargest() {
+		assertThat(StreamUtils.smallest(LongStream.range(0, 100_000).map(i -> (i * 7919) % 100_003).parallel(), 3))
+				.containsExactly(0, 1, 2);
+		assertThat(StreamUtils.largest(LongStream.of(5, 1, 9, 3, 9), 2))
+				.containsExactly(9, 9);
+		assertThat(StreamUtils.smallest(LongStream.of(5), 3))
+				.containsExactly(5);
+	}
+
+	@Test
+	void smallestCollector() {
+		assertThat(Stream.of("dd", "a", "ccc", "bbbb").parallel().collect(StreamUtils.smallest(2, Comparator.comparing(String::length))))
+				.containsExactly("a", "dd");
+	}
+
+}
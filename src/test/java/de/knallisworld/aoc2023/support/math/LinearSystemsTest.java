@@ -0,0 +1,41 @@
+package de.knallisworld.aoc2023.support.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LinearSystemsTest {
+
+	@Test
+	void solve() {
+		// 2x + y = 5, x - y = 1/2 (scaled: 2x - 2y = 1)
+		final var result = LinearSystems.solve(
+				new long[][]{{2, 1}, {2, -2}},
+				new long[]{5, 1}
+		);
+		assertThat(result).isPresent();
+		assertThat(result.get()).containsExactly(
+				new Fraction(BigInteger.valueOf(11), BigInteger.valueOf(6)),
+				new Fraction(BigInteger.valueOf(4), BigInteger.valueOf(3))
+		);
+	}
+
+	@Test
+	void solveRequiresPivoting() {
+		final var result = LinearSystems.solve(
+				new long[][]{{0, 1}, {1, 0}},
+				new long[]{3, 4}
+		);
+		assertThat(result).isPresent();
+		assertThat(result.get()).containsExactly(Fraction.of(4), Fraction.of(3));
+	}
+
+	@Test
+	void singular() {
+		assertThat(LinearSystems.solve(new long[][]{{1, 2}, {2, 4}}, new long[]{1, 2}))
+				.isEmpty();
+	}
+
+}
@@ -0,0 +1,57 @@
+package de.knallisworld.aoc2023.support.math;
+
+import de.knallisworld.aoc2023.support.math.LongRangeSet.Range;
+import de.knallisworld.aoc2023.support.math.LongRangeSet.Shift;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongRangeSetTest {
+
+	@Test
+	void normalize() {
+		final var set = LongRangeSet.of(List.of(
+				new Range(10, 20),
+				new Range(0, 5),
+				new Range(5, 7),
+				new Range(15, 25),
+				new Range(30, 30)
+		));
+		assertThat(set.ranges())
+				.containsExactly(new Range(0, 7), new Range(10, 25));
+		assertThat(set.size()).isEqualTo(22);
+		assertThat(set.contains(6)).isTrue();
+		assertThat(set.contains(7)).isFalse();
+		assertThat(set.contains(24)).isTrue();
+	}
+
+	@Test
+	void shiftSplitsAtBoundaries() {
+		// seed-to-soil of the day 5 example: 50 98 2, 52 50 48
+		final var set = LongRangeSet.of(List.of(Range.ofLength(79, 14), Range.ofLength(55, 13), new Range(96, 101)));
+		final var shifted = set.shift(List.of(
+				new Shift(98, 100, 50 - 98),
+				new Shift(50, 98, 52 - 50)
+		));
+		assertThat(shifted.ranges())
+				.containsExactly(
+						new Range(50, 52),
+						new Range(57, 70),
+						new Range(81, 95),
+						new Range(98, 101)
+				);
+		assertThat(shifted.size()).isEqualTo(set.size());
+	}
+
+	@Test
+	void hugeRanges() {
+		final var set = LongRangeSet.of(List.of(Range.ofLength(0, 1_000_000_000_000L)));
+		final var shifted = set.shift(List.of(new Shift(500_000_000_000L, 2_000_000_000_000L, -500_000_000_000L)));
+		assertThat(shifted.ranges())
+				.containsExactly(new Range(0, 500_000_000_000L));
+		assertThat(shifted.min()).isEqualTo(0);
+	}
+
+}
@@ -0,0 +1,61 @@
+package de.knallisworld.aoc2023.support.math;
+
+import de.knallisworld.aoc2023.support.math.NumberTheory.Cycle;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NumberTheoryTest {
+
+	@Test
+	void lcm() {
+		assertThat(NumberTheory.lcm(4, 6))
+				.isEqualTo(12);
+		assertThat(NumberTheory.lcm(-4, 6))
+				.isEqualTo(12);
+		assertThat(NumberTheory.lcm(0, 6))
+				.isZero();
+		// large coprime values, instantly
+		assertThat(NumberTheory.lcm(1_000_000_007L, 998_244_353L))
+				.isEqualTo(1_000_000_007L * 998_244_353L);
+		assertThatThrownBy(() -> NumberTheory.lcm(Long.MAX_VALUE, Long.MAX_VALUE - 1))
+				.isInstanceOf(ArithmeticException.class);
+	}
+
+	@Test
+	void lcmExact() {
+		assertThat(NumberTheory.lcmExact(2, 3, 4))
+				.isEqualTo(BigInteger.valueOf(12));
+		assertThat(NumberTheory.lcmExact(Long.MAX_VALUE, Long.MAX_VALUE - 1, 2))
+				.isEqualTo(BigInteger.valueOf(Long.MAX_VALUE).multiply(BigInteger.valueOf(Long.MAX_VALUE - 1)));
+	}
+
+	@Test
+	void crt() {
+		assertThat(NumberTheory.crt(new Cycle(3, 5), new Cycle(2, 7)))
+				.contains(new Cycle(23, 35));
+		// not coprime
+		assertThat(NumberTheory.crt(new Cycle(2, 4), new Cycle(4, 6)))
+				.contains(new Cycle(10, 12));
+		assertThat(NumberTheory.crt(new Cycle(1, 4), new Cycle(2, 6)))
+				.isEmpty();
+	}
+
+	@Test
+	void combineCycles() {
+		assertThat(NumberTheory.combineCycles(List.of(new Cycle(3, 3), new Cycle(5, 5), new Cycle(7, 7))))
+				.isEqualTo(new Cycle(105, 105));
+		// the first common value must not be before any offset
+		assertThat(NumberTheory.combineCycles(List.of(new Cycle(3, 3), new Cycle(14, 7))))
+				.isEqualTo(new Cycle(21, 21));
+		assertThat(NumberTheory.combineCycles(List.of(new Cycle(2, 4), new Cycle(4, 6), new Cycle(0, 1))))
+				.isEqualTo(new Cycle(10, 12));
+		assertThatThrownBy(() -> NumberTheory.combineCycles(List.of(new Cycle(1, 4), new Cycle(2, 6))))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+}
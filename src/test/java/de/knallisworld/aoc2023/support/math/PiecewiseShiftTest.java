@@ -0,0 +1,48 @@
+package de.knallisworld.aoc2023.support.math;
+
+import de.knallisworld.aoc2023.support.math.LongRangeSet.Shift;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PiecewiseShiftTest {
+
+	@Test
+	void apply() {
+		// seed-to-soil of the day 5 example: 50 98 2, 52 50 48
+		final var shift = PiecewiseShift.of(List.of(new Shift(98, 100, -48), new Shift(50, 98, 2)));
+		assertThat(shift.apply(79)).isEqualTo(81);
+		assertThat(shift.apply(14)).isEqualTo(14);
+		assertThat(shift.apply(98)).isEqualTo(50);
+		assertThat(shift.apply(100)).isEqualTo(100);
+	}
+
+	@Test
+	void andThenMatchesSequential() {
+		final var random = new Random(5);
+		final var chain = new ArrayList<PiecewiseShift>();
+		for (var i = 0; i < 7; i++) {
+			final var shifts = new ArrayList<Shift>();
+			var pos = (long) random.nextInt(50);
+			for (var k = 0; k < 10; k++) {
+				final var len = 1 + random.nextInt(30);
+				shifts.add(new Shift(pos, pos + len, random.nextInt(-40, 40)));
+				pos += len + random.nextInt(10);
+			}
+			chain.add(PiecewiseShift.of(shifts));
+		}
+		final var composed = chain.stream().reduce(PiecewiseShift.identity(), PiecewiseShift::andThen);
+		for (var x = -100L; x < 500; x++) {
+			var expected = x;
+			for (final var shift : chain) {
+				expected = shift.apply(expected);
+			}
+			assertThat(composed.apply(x)).isEqualTo(expected);
+		}
+	}
+
+}
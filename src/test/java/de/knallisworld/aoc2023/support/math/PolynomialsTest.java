@@ -0,0 +1,91 @@
+package de.knallisworld.aoc2023.support.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PolynomialsTest {
+
+	@Test
+	void differences() {
+		final var values = new long[]{1, 3, 6, 10, 15, 21};
+		assertThat(Polynomials.differences(values))
+				.isEqualTo(2);
+		assertThat(values)
+				.startsWith(1, 2, 1);
+
+		assertThat(Polynomials.differences(new long[]{0, 0, 0}))
+				.isEqualTo(-1);
+		assertThat(Polynomials.differences(new long[]{7, 7, 7}))
+				.isZero();
+	}
+
+	@Test
+	void extrapolateExamples() {
+		assertThat(Polynomials.extrapolate(new long[]{0, 3, 6, 9, 12, 15}, 6))
+				.isEqualTo(18);
+		assertThat(Polynomials.extrapolate(new long[]{1, 3, 6, 10, 15, 21}, 6))
+				.isEqualTo(28);
+		assertThat(Polynomials.extrapolate(new long[]{10, 13, 16, 21, 30, 45}, 6))
+				.isEqualTo(68);
+		assertThat(Polynomials.extrapolate(new long[]{10, 13, 16, 21, 30, 45}, -1))
+				.isEqualTo(5);
+	}
+
+	@Test
+	void extrapolateFarAway() {
+		// y = 3x^2 - 2x + 5
+		final var x = 1_000_000_000L;
+		assertThat(Polynomials.extrapolate(new long[]{5, 6, 13}, x))
+				.isEqualTo(3 * x * x - 2 * x + 5);
+		// y = x^3, close to the long limit
+		final var y = (1L << 21) - 1;
+		assertThat(Polynomials.extrapolate(new long[]{0, 1, 8, 27}, y))
+				.isEqualTo(y * y * y);
+		assertThatThrownBy(() -> Polynomials.extrapolate(new long[]{0, 1, 8, 27}, 10_000_000L))
+				.isInstanceOf(ArithmeticException.class);
+		assertThat(Polynomials.extrapolateExact(new long[]{0, 1, 8, 27}, BigInteger.TEN.pow(10)))
+				.isEqualTo(BigInteger.TEN.pow(30));
+	}
+
+	@Test
+	void extrapolateBatch() {
+		final var a = new long[]{0, 3, 6, 9, 12, 15};
+		final var b = new long[]{1, 3, 6, 10, 15, 21};
+		final var c = new long[]{10, 13, 16, 21, 30, 45};
+		final var values = new long[a.length * 3];
+		for (var i = 0; i < a.length; i++) {
+			values[i * 3] = a[i];
+			values[i * 3 + 1] = b[i];
+			values[i * 3 + 2] = c[i];
+		}
+		assertThat(Polynomials.extrapolate(values.clone(), 3, 6))
+				.containsExactly(18, 28, 68);
+		assertThat(Polynomials.extrapolate(values, 3, -1))
+				.containsExactly(-3, 0, 5);
+		assertThatThrownBy(() -> Polynomials.extrapolate(new long[5], 2, 0))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void extrapolateBatchOverflow() {
+		// first series: differences overflow, the value at 1 fits; second series: plain
+		final var max = Long.MAX_VALUE;
+		final var values = new long[]{max, 1, -max, 2, max, 3};
+		assertThat(Polynomials.extrapolate(values.clone(), 2, 1))
+				.containsExactly(-max, 2);
+		// y = 7 * max at 3
+		assertThatThrownBy(() -> Polynomials.extrapolate(values.clone(), 2, 3))
+				.isInstanceOf(ArithmeticException.class);
+		// y = x^3 beyond long, no overflow within the differences
+		assertThatThrownBy(() -> Polynomials.extrapolate(new long[]{0, 1, 8, 27}, 1, 10_000_000L))
+				.isInstanceOf(ArithmeticException.class);
+		final var y = (1L << 21) - 1;
+		assertThat(Polynomials.extrapolate(new long[]{0, 1, 8, 27}, 1, y))
+				.containsExactly(y * y * y);
+	}
+
+}
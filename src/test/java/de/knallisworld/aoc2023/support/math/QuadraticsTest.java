@@ -0,0 +1,72 @@
+package de.knallisworld.aoc2023.support.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QuadraticsTest {
+
+	@Test
+	void isqrt() {
+		assertThat(Quadratics.isqrt(0))
+				.isZero();
+		assertThat(Quadratics.isqrt(15))
+				.isEqualTo(3);
+		assertThat(Quadratics.isqrt(16))
+				.isEqualTo(4);
+		// the double estimate is too large here
+		assertThat(Quadratics.isqrt(999_999_999L * 999_999_999L + 2 * 999_999_999L))
+				.isEqualTo(999_999_999L);
+		assertThat(Quadratics.isqrt(Long.MAX_VALUE))
+				.isEqualTo(3_037_000_499L);
+		assertThat(Quadratics.isqrt(BigInteger.TEN.pow(36).subtract(BigInteger.ONE)))
+				.isEqualTo(BigInteger.TEN.pow(18).subtract(BigInteger.ONE));
+		assertThatThrownBy(() -> Quadratics.isqrt(-1))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void countProductAboveExamples() {
+		assertThat(Quadratics.countProductAbove(7, 9))
+				.isEqualTo(4);
+		assertThat(Quadratics.countProductAbove(15, 40))
+				.isEqualTo(8);
+		// boundaries on exact roots (10 * 20 = 200) do not count
+		assertThat(Quadratics.countProductAbove(30, 200))
+				.isEqualTo(9);
+		assertThat(Quadratics.countProductAbove(71530, 940200))
+				.isEqualTo(71503);
+	}
+
+	@Test
+	void countProductAboveMatchesBruteForce() {
+		for (var total = 0L; total < 60; total++) {
+			for (var threshold = -2L; threshold < total * total / 4 + 3; threshold++) {
+				final var t = total;
+				final var d = threshold;
+				assertThat(Quadratics.countProductAbove(total, threshold))
+						.as("total = %d, threshold = %d", total, threshold)
+						.isEqualTo(LongStream.rangeClosed(0, t).filter(i -> i * (t - i) > d).count());
+			}
+		}
+	}
+
+	@Test
+	void countProductAboveLarge() {
+		final var total = 1_000_000_000_000_000_000L;
+		// t * (total - t) > 0 for all but both ends
+		assertThat(Quadratics.countProductAbove(total, 0))
+				.isEqualTo(total - 1);
+		// 9 * (total - 9) < Long.MAX_VALUE < 10 * (total - 10)
+		assertThat(Quadratics.countProductAbove(total, Long.MAX_VALUE))
+				.isEqualTo(total - 2 * 10 + 1);
+		// only the middle exceeds (total / 2)^2 - 1
+		assertThat(Quadratics.countProductAbove(2 * 3_000_000_000L, 3_000_000_000L * 3_000_000_000L - 1))
+				.isEqualTo(1);
+	}
+
+}